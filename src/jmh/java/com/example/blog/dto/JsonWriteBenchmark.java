@@ -0,0 +1,66 @@
+package com.example.blog.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Throughput of writing response bodies to JSON (one full page of posts and of comments), with ObjectMapper
+//configured the same way Spring Boot configures the one it uses for responses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonWriteBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<PostResponse> posts;
+    private PageResponse<CommentResponse> comments;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PostResponse> postResponses = new ArrayList<>();
+        List<CommentResponse> commentResponses = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            postResponses.add(PostResponse.builder()
+                    .title("Post " + i)
+                    .content("content ".repeat(250))
+                    .categories(List.of("category 1", "category 2"))
+                    .tags(List.of("tag 1", "tag 2", "tag 3", "tag 4", "tag 5"))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+            commentResponses.add(CommentResponse.builder()
+                    .userName("john_evans@gmail.com")
+                    .content("comment ".repeat(20))
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        posts = new PageResponse<>(postResponses, "MjAyMy0wNC0wMVQxMjowMHwxMjM0");
+        comments = new PageResponse<>(commentResponses, "MjAyMy0wNC0wMVQxMjowMHwxMjM0");
+    }
+
+    @Benchmark
+    public byte[] writePosts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(posts);
+    }
+
+    @Benchmark
+    public byte[] writeComments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(comments);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.blog.exception;
+
+import com.example.blog.dto.PostRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Cost of the error path: creating the exception (filling in its stack trace is most of it) and mapping it to
+//the response body. "notFound" is what every request for a missing post/category/tag pays, "validation" is
+//a request body with three invalid fields
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MethodParameter parameter;
+    private PostRequest request;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        parameter = new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("createPost", PostRequest.class), 0
+        );
+        request = PostRequest.builder().build();
+    }
+
+    @Benchmark
+    public Map<String, String> notFound() {
+        try {
+            throw new PostNotFoundException("Post by the title Test not found!");
+        } catch (PostNotFoundException e) {
+            return handler.handleNonExistingPost(e);
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> validation() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(request, "postRequest");
+        bindingResult.rejectValue("title", "NotBlank", "Title can not be blank");
+        bindingResult.rejectValue("content", "NotBlank", "Content can not be blank");
+        bindingResult.rejectValue("categories", "NotEmpty", "Post has to have at least one category");
+        return handler.handleInvalidArgument(new MethodArgumentNotValidException(parameter, bindingResult));
+    }
+
+    //Only its parameter is used, MethodArgumentNotValidException needs to know which argument was not valid
+    private void createPost(PostRequest request) {
+    }
+}
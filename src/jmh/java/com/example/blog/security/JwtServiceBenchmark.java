@@ -0,0 +1,88 @@
+package com.example.blog.security;
+
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+//Verify path of one authenticated request: JwtAuthenticationFilter extracts the username and
+//checks if the token is valid.
+//"legacy" is how it used to be done (new key and parser on every call, token parsed by the filter
+//for every claim, and once more by the service which extracted the username again),
+//"cached" is how JwtAuthenticationFilter does it now (key and parser built once, token parsed once).
+//"generate" and "verify" are signing one token (login/register) and checking the signature of one token
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET_KEY = "66556A586E3272357538782F413F4428472B4B6250655367566B597033733676";
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        user = User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyExtractAllClaims(token).getSubject();
+        boolean valid = username.equals(user.getUsername())
+                && legacyExtractAllClaims(token).getSubject().equals(user.getUsername())
+                && !legacyExtractAllClaims(token).getExpiration().before(new Date());
+        return valid && legacyExtractAllClaims(token).getSubject() != null;
+    }
+
+    @Benchmark
+    public boolean cached() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return claims.getSubject().equals(user.getUsername()) && jwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken(user);
+    }
+
+    //Every call parses and verifies the token
+    @Benchmark
+    public boolean verify() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    private Claims legacyExtractAllClaims(String token) {
+        return Jwts
+                .parserBuilder()
+                .setSigningKey(legacySigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private Key legacySigningKey() {
+        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+}
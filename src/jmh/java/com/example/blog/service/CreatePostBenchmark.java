@@ -0,0 +1,85 @@
+package com.example.blog.service;
+
+import com.example.blog.BlogApplication;
+import com.example.blog.dto.PostRequest;
+import com.example.blog.dto.PostResponse;
+import com.example.blog.entity.Category;
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import com.example.blog.repository.CategoryRepository;
+import com.example.blog.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Throughput of creating a post with 10 tags, with JDBC batching turned off (batch size 1) and on.
+//It runs against in-memory H2, so round trips are much cheaper than they are with Postgres over
+//the network, which means the real difference is bigger than the one shown here
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatePostBenchmark {
+
+    private static final int TAGS_PER_POST = 10;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private User user;
+    private Category category;
+    private Set<String> tags;
+    private long postNumber;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BlogApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:create-post-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize
+                );
+        postService = context.getBean(PostService.class);
+
+        user = context.getBean(UserRepository.class).save(User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+        category = context.getBean(CategoryRepository.class).save(Category.builder().name("category").build());
+
+        tags = new HashSet<>();
+        for (int i = 0; i < TAGS_PER_POST; i++) {
+            tags.add("tag " + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PostResponse createPost() {
+        return postService.createPost(PostRequest.builder()
+                .title("Post " + postNumber++)
+                .content("content")
+                .categories(Set.of(category.getName()))
+                .tags(tags)
+                .build(), user);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.PageResponse;
+import com.example.blog.dto.PostResponse;
+import com.example.blog.entity.Post;
+import com.example.blog.projection.PostNameView;
+import com.example.blog.repository.PostCategoryRepository;
+import com.example.blog.repository.PostRepository;
+import com.example.blog.repository.PostTagRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Time PostService spends turning posts (and names of their categories/tags) into PostResponses, without the
+//database: repositories just return posts and names which are already in memory. Page size is at most 100,
+//so listing 10000 posts means paging through 100 pages, just like a client which reads all of them would
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostResponseBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int CATEGORIES_PER_POST = 2;
+    private static final int TAGS_PER_POST = 5;
+
+    @Param({"1", "100", "10000"})
+    private int postCount;
+
+    private PostService postService;
+
+    @Setup
+    public void setUp() {
+        //Newest post first, just like findPage returns them
+        List<Post> posts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < postCount; i++) {
+            posts.add(Post.builder()
+                    .id((long) (postCount - i))
+                    .title("Post " + i)
+                    .content("content ".repeat(100))
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now.minusMinutes(i))
+                    .build());
+        }
+        Map<Long, List<PostNameView>> categories = namesByPostId(posts, "category", CATEGORIES_PER_POST);
+        Map<Long, List<PostNameView>> tags = namesByPostId(posts, "tag", TAGS_PER_POST);
+
+        PostRepository postRepository = repository(PostRepository.class, "findPage", args -> {
+            long id = (Long) args[1];
+            int from = id == Long.MAX_VALUE ? 0 : (int) (postCount - id) + 1;
+            int to = Math.min(posts.size(), from + ((Pageable) args[2]).getPageSize());
+            return posts.subList(from, to);
+        });
+        PostCategoryRepository postCategoryRepository = repository(PostCategoryRepository.class,
+                "findNamesByPostIds", args -> names(categories, (Collection<?>) args[0]));
+        PostTagRepository postTagRepository = repository(PostTagRepository.class,
+                "findNamesByPostIds", args -> names(tags, (Collection<?>) args[0]));
+
+        postService = new PostService(postRepository, null, null, postCategoryRepository, postTagRepository,
+                null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public void getAllPosts(Blackhole blackhole) {
+        String cursor = null;
+        do {
+            PageResponse<PostResponse> page = postService.getAllPosts(cursor, PAGE_SIZE);
+            blackhole.consume(page);
+            cursor = page.getNext();
+        } while (cursor != null);
+    }
+
+    private static Map<Long, List<PostNameView>> namesByPostId(List<Post> posts, String prefix, int perPost) {
+        Map<Long, List<PostNameView>> names = new HashMap<>();
+        for (Post post : posts) {
+            List<PostNameView> postNames = new ArrayList<>();
+            for (int i = 0; i < perPost; i++) {
+                postNames.add(new Name(post.getId(), prefix + " " + i));
+            }
+            names.put(post.getId(), postNames);
+        }
+        return names;
+    }
+
+    private static List<PostNameView> names(Map<Long, List<PostNameView>> namesByPostId, Collection<?> postIds) {
+        List<PostNameView> names = new ArrayList<>();
+        for (Object postId : postIds) {
+            names.addAll(namesByPostId.getOrDefault((Long) postId, List.of()));
+        }
+        return names;
+    }
+
+    //Repository which implements only the one method PostService calls, with much less overhead than a mock
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, String methodName, RepositoryMethod method) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, invoked, args) -> {
+            if (invoked.getName().equals(methodName)) {
+                return method.invoke(args);
+            }
+            throw new UnsupportedOperationException(invoked.getName());
+        });
+    }
+
+    private interface RepositoryMethod {
+        Object invoke(Object[] args);
+    }
+
+    private record Name(Long postId, String name) implements PostNameView {
+
+        @Override
+        public Long getPostId() {
+            return postId;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
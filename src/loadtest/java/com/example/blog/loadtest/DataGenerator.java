@@ -0,0 +1,226 @@
+package com.example.blog.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+//Seeds an empty database with users, categories, tags, posts and comments. Rows are inserted with plain JDBC
+//batches (and not through the services), so even hundreds of thousands of rows take seconds.
+//Categories, tags and posts (for comments) are picked with Zipfian popularity, contents of posts and comments
+//have log-normal lengths. Every user has the same password, so the load driver can log in as any of them
+final class DataGenerator {
+
+    static final String PASSWORD = "Password.123";
+
+    private static final int BATCH_SIZE = 1000;
+    //Hibernate allocates ids in blocks of 50 (see V1__create_schema.sql)
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final DataSource dataSource;
+    private final LoadTestOptions options;
+    private final Random random;
+
+    DataGenerator(DataSource dataSource, LoadTestOptions options) {
+        this.dataSource = dataSource;
+        this.options = options;
+        this.random = new Random(options.seed());
+    }
+
+    static String email(int user) {
+        return "user" + user + "@loadtest.com";
+    }
+
+    static String categoryName(int category) {
+        return "category-" + category;
+    }
+
+    static String tagName(int tag) {
+        return "tag-" + tag;
+    }
+
+    //Posts are numbered from the oldest one, so post number "posts - 1" is the newest one
+    static String postTitle(int post) {
+        return "post-" + post;
+    }
+
+    void generate() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            checkEmpty(connection);
+
+            insertUsers(connection);
+            insertNames(connection, "categories", options.categories(), DataGenerator::categoryName);
+            insertNames(connection, "tags", options.tags(), DataGenerator::tagName);
+            insertPosts(connection);
+            insertComments(connection);
+            updatePostCounts(connection);
+            restartSequences(connection);
+
+            connection.commit();
+        }
+    }
+
+    private void checkEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM users")) {
+            resultSet.next();
+            if (resultSet.getLong(1) > 0) {
+                throw new IllegalStateException("Database already has users, load test needs an empty database");
+            }
+        }
+    }
+
+    private void insertUsers(Connection connection) throws SQLException {
+        //BCrypt is slow on purpose, so the password is hashed only once
+        String password = new BCryptPasswordEncoder().encode(PASSWORD);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO users (id, first_name, last_name, email, password, role) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < options.users(); i++) {
+                statement.setLong(1, i + 1);
+                statement.setString(2, "First" + i);
+                statement.setString(3, "Last" + i);
+                statement.setString(4, email(i));
+                statement.setString(5, password);
+                statement.setString(6, "USER");
+                addBatch(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertNames(Connection connection, String table, int count, IntFunction<String> nameOf) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                statement.setLong(1, i + 1);
+                statement.setString(2, nameOf.apply(i));
+                addBatch(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    //Posts are spread over the last year, ids grow with created at just like they do in production.
+    //Authors are Zipfian too (few users write most of the posts), every post has 1-2 categories and 1-5 tags
+    private void insertPosts(Connection connection) throws SQLException {
+        Zipf authors = new Zipf(options.users(), options.zipfExponent());
+        Zipf categories = new Zipf(options.categories(), options.zipfExponent());
+        Zipf tags = new Zipf(options.tags(), options.zipfExponent());
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        long step = Duration.ofDays(365).toMillis() / Math.max(1, options.posts());
+
+        try (PreparedStatement posts = connection.prepareStatement(
+                "INSERT INTO posts (id, title, content, created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement postCategories = connection.prepareStatement(
+                     "INSERT INTO post_categories (post_id, category_id) VALUES (?, ?)");
+             PreparedStatement postTags = connection.prepareStatement(
+                     "INSERT INTO post_tags (post_id, tag_id) VALUES (?, ?)")) {
+            for (int i = 0; i < options.posts(); i++) {
+                Timestamp createdAt = Timestamp.valueOf(start.plus(Duration.ofMillis(step * i)));
+                posts.setLong(1, i + 1);
+                posts.setString(2, postTitle(i));
+                posts.setString(3, Text.of(random, Text.length(random, 3000, 200, 50000)));
+                posts.setTimestamp(4, createdAt);
+                posts.setTimestamp(5, createdAt);
+                posts.setLong(6, authors.next(random) + 1);
+                addBatch(posts, i);
+
+                //Bridge rows reference the post, so its batch has to be sent first
+                if (i % BATCH_SIZE == BATCH_SIZE - 1) {
+                    postCategories.executeBatch();
+                    postTags.executeBatch();
+                }
+                for (int category : distinct(categories, 1 + random.nextInt(2), options.categories())) {
+                    postCategories.setLong(1, i + 1);
+                    postCategories.setLong(2, category + 1);
+                    postCategories.addBatch();
+                }
+                for (int tag : distinct(tags, 1 + random.nextInt(5), options.tags())) {
+                    postTags.setLong(1, i + 1);
+                    postTags.setLong(2, tag + 1);
+                    postTags.addBatch();
+                }
+            }
+            posts.executeBatch();
+            postCategories.executeBatch();
+            postTags.executeBatch();
+        }
+    }
+
+    //Newer posts get more comments (rank 0 of the Zipf is the newest post)
+    private void insertComments(Connection connection) throws SQLException {
+        if (options.posts() == 0) {
+            return;
+        }
+        Zipf posts = new Zipf(options.posts(), options.zipfExponent());
+        LocalDateTime now = LocalDateTime.now();
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO comments (id, content, created_at, updated_at, user_id, post_id) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < options.comments(); i++) {
+                Timestamp createdAt = Timestamp.valueOf(now.minusSeconds(options.comments() - i));
+                statement.setLong(1, i + 1);
+                statement.setString(2, Text.of(random, Text.length(random, 200, 10, 5000)));
+                statement.setTimestamp(3, createdAt);
+                statement.setTimestamp(4, createdAt);
+                statement.setLong(5, random.nextInt(options.users()) + 1);
+                statement.setLong(6, options.posts() - posts.next(random));
+                addBatch(statement, i);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    //Same as V3__post_counts.sql, the services keep these up to date, but we did not go through the services
+    private void updatePostCounts(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE categories c SET post_count = " +
+                    "(SELECT count(*) FROM post_categories pc WHERE pc.category_id = c.id)");
+            statement.executeUpdate("UPDATE tags t SET post_count = " +
+                    "(SELECT count(*) FROM post_tags pt WHERE pt.tag_id = t.id)");
+        }
+    }
+
+    //Ids were set by us, so sequences have to continue after them, otherwise the first posts/comments created
+    //by the load driver would get ids which are already taken
+    private void restartSequences(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            restart(statement, "users_id_sequence", options.users());
+            restart(statement, "categories_id_sequence", options.categories());
+            restart(statement, "tags_id_sequence", options.tags());
+            restart(statement, "posts_id_sequence", options.posts());
+            restart(statement, "comments_id_sequence", options.comments());
+        }
+    }
+
+    private void restart(Statement statement, String sequence, long lastId) throws SQLException {
+        statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastId + ALLOCATION_SIZE));
+    }
+
+    private Set<Integer> distinct(Zipf zipf, int count, int max) {
+        Set<Integer> picked = new HashSet<>();
+        while (picked.size() < Math.min(count, max)) {
+            picked.add(zipf.next(random));
+        }
+        return picked;
+    }
+
+    private void addBatch(PreparedStatement statement, int row) throws SQLException {
+        statement.addBatch();
+        if (row % BATCH_SIZE == BATCH_SIZE - 1) {
+            statement.executeBatch();
+        }
+    }
+}
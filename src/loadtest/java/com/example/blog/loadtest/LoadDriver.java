@@ -0,0 +1,278 @@
+package com.example.blog.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Replays a mix of the requests from blog.postman_collection.json against a running application, with "threads"
+//workers sending requests one after another (closed loop) for warmup + duration. Posts, tags and categories
+//are picked with the same Zipfian popularity as the generated data, so caches see production-like hit rates.
+//"write-ratio" of requests create posts or comments, as one of the users logged in before the test starts
+final class LoadDriver {
+
+    //Slowest latency the histograms can hold, anything slower is counted as this
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    enum Operation {
+        GET_POST(35, false),
+        GET_ALL_POSTS(12, false),
+        GET_ALL_POST_SUMMARIES(5, false),
+        GET_POSTS_BY_TAG(10, false),
+        GET_POSTS_BY_CATEGORY(5, false),
+        SEARCH_POSTS(10, false),
+        GET_COMMENTS(13, false),
+        AUTOCOMPLETE_TAGS(5, false),
+        GET_POPULAR_TAGS(3, false),
+        GET_POPULAR_CATEGORIES(2, false),
+        CREATE_POST(1, true),
+        CREATE_COMMENT(3, true);
+
+        //Relative weight among the reads (or among the writes)
+        private final int weight;
+        private final boolean write;
+
+        Operation(int weight, boolean write) {
+            this.weight = weight;
+            this.write = write;
+        }
+    }
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService httpExecutor = Executors.newFixedThreadPool(4);
+    private final HttpClient httpClient;
+    private final Zipf posts;
+    private final Zipf categories;
+    private final Zipf tags;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong createdPosts = new AtomicLong();
+
+    LoadDriver(String baseUrl, LoadTestOptions options, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+        this.posts = new Zipf(Math.max(1, options.posts()), options.zipfExponent());
+        this.categories = new Zipf(Math.max(1, options.categories()), options.zipfExponent());
+        this.tags = new Zipf(Math.max(1, options.tags()), options.zipfExponent());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    LoadReport run() throws Exception {
+        List<String> tokens = login();
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < options.threads(); i++) {
+                Worker worker = new Worker(i, tokens.get(i % tokens.size()), measureFrom, end);
+                futures.add(workers.submit(() -> {
+                    worker.run();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+            httpExecutor.shutdownNow();
+        }
+
+        return LoadReport.of(options, latencies, errors);
+    }
+
+    //Logging in is limited per ip (see "blog.login" in application.yml), so we log in only a few users
+    //and workers share their tokens
+    private List<String> login() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, Math.min(options.loginUsers(), options.users())); i++) {
+            HttpResponse<String> response = httpClient.send(
+                    post("/api/v1/user/login", Map.of("email", DataGenerator.email(i), "password", DataGenerator.PASSWORD), null),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login of " + DataGenerator.email(i) + " failed with "
+                        + response.statusCode() + ": " + response.body());
+            }
+            tokens.add(objectMapper.readTree(response.body()).get("token").asText());
+        }
+        return tokens;
+    }
+
+    private final class Worker {
+
+        private final int id;
+        private final String token;
+        private final long measureFrom;
+        private final long end;
+        private final Random random;
+        private final List<Operation> reads = new ArrayList<>();
+        private final List<Operation> writes = new ArrayList<>();
+        private final int readWeight;
+        private final int writeWeight;
+
+        Worker(int id, String token, long measureFrom, long end) {
+            this.id = id;
+            this.token = token;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.random = new Random(options.seed() + id);
+            int readWeight = 0;
+            int writeWeight = 0;
+            for (Operation operation : Operation.values()) {
+                if (operation.write) {
+                    writes.add(operation);
+                    writeWeight += operation.weight;
+                } else {
+                    reads.add(operation);
+                    readWeight += operation.weight;
+                }
+            }
+            this.readWeight = readWeight;
+            this.writeWeight = writeWeight;
+        }
+
+        void run() throws Exception {
+            while (System.nanoTime() < end) {
+                Operation operation = random.nextDouble() < options.writeRatio()
+                        ? pick(writes, writeWeight)
+                        : pick(reads, readWeight);
+                HttpRequest request = request(operation);
+
+                long started = System.nanoTime();
+                int status;
+                try {
+                    status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    //Connection refused/reset, counted as an error
+                    status = -1;
+                }
+                long finished = System.nanoTime();
+
+                if (started >= measureFrom && finished <= end) {
+                    latencies.get(operation).recordValue(
+                            Math.min(TimeUnit.NANOSECONDS.toMicros(finished - started), MAX_LATENCY_MICROS)
+                    );
+                    if (status < 200 || status >= 300) {
+                        errors.get(operation).incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        private Operation pick(List<Operation> operations, int totalWeight) {
+            int value = random.nextInt(totalWeight);
+            for (Operation operation : operations) {
+                value -= operation.weight;
+                if (value < 0) {
+                    return operation;
+                }
+            }
+            return operations.get(operations.size() - 1);
+        }
+
+        private HttpRequest request(Operation operation) throws Exception {
+            return switch (operation) {
+                case GET_POST -> get("/api/v1/posts/" + encode(postTitle()));
+                case GET_ALL_POSTS -> get("/api/v1/posts/all");
+                case GET_ALL_POST_SUMMARIES -> get("/api/v1/posts/all?view=summary");
+                case GET_POSTS_BY_TAG -> get("/api/v1/posts/all-by-tag?tagName=" + encode(tagName()));
+                case GET_POSTS_BY_CATEGORY ->
+                        get("/api/v1/posts/all-by-category?categoryName=" + encode(categoryName()));
+                case SEARCH_POSTS -> get("/api/v1/posts/search?query="
+                        + encode(Text.WORDS[random.nextInt(Text.WORDS.length)]));
+                case GET_COMMENTS -> get("/api/v1/posts/" + encode(postTitle()) + "/comments/all");
+                case AUTOCOMPLETE_TAGS -> get("/api/v1/posts/tags/autocomplete?prefix="
+                        + encode("tag-" + (1 + random.nextInt(9))));
+                case GET_POPULAR_TAGS -> get("/api/v1/posts/tags/popular");
+                case GET_POPULAR_CATEGORIES -> get("/api/v1/posts/categories/popular");
+                case CREATE_POST -> post("/api/v1/posts/create", Map.of(
+                        "title", "loadtest-" + id + "-" + createdPosts.incrementAndGet(),
+                        "content", Text.of(random, Text.length(random, 3000, 200, 50000)),
+                        "categories", names(categories, 1 + random.nextInt(2), options.categories(), "category-"),
+                        "tags", names(tags, 1 + random.nextInt(5), options.tags(), "tag-")
+                ), token);
+                case CREATE_COMMENT -> post("/api/v1/posts/" + encode(postTitle()) + "/comments/create", Map.of(
+                        "content", Text.of(random, Text.length(random, 200, 10, 5000))
+                ), token);
+            };
+        }
+
+        //Rank 0 is the newest post, which is also the most popular one
+        private String postTitle() {
+            return DataGenerator.postTitle(options.posts() - 1 - posts.next(random));
+        }
+
+        private String tagName() {
+            return DataGenerator.tagName(tags.next(random));
+        }
+
+        private String categoryName() {
+            return DataGenerator.categoryName(categories.next(random));
+        }
+
+        private Set<String> names(Zipf zipf, int count, int max, String prefix) {
+            Set<String> names = new LinkedHashSet<>();
+            while (names.size() < Math.min(count, max)) {
+                names.add(prefix + zipf.next(random));
+            }
+            return names;
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.blog.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Throughput and latency percentiles (in milliseconds) of every operation and of all of them together,
+//printed as a table and saved as JSON, so results of two runs can be compared
+record LoadReport(LoadTestOptions options, List<OperationReport> operations, OperationReport total) {
+
+    record OperationReport(
+            String operation,
+            long requests,
+            long errors,
+            double throughput,
+            double p50,
+            double p90,
+            double p99,
+            double p999,
+            double max
+    ) {
+
+        static OperationReport of(String operation, Histogram histogram, long errors, double seconds) {
+            return new OperationReport(
+                    operation,
+                    histogram.getTotalCount(),
+                    errors,
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())
+            );
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    static LoadReport of(
+            LoadTestOptions options,
+            Map<LoadDriver.Operation, Histogram> latencies,
+            Map<LoadDriver.Operation, AtomicLong> errors
+    ) {
+        double seconds = options.duration().toMillis() / 1000.0;
+        List<OperationReport> operations = new ArrayList<>();
+        Histogram all = null;
+        long allErrors = 0;
+        for (var entry : latencies.entrySet()) {
+            long operationErrors = errors.get(entry.getKey()).get();
+            operations.add(OperationReport.of(entry.getKey().name(), entry.getValue(), operationErrors, seconds));
+            if (all == null) {
+                all = entry.getValue().copy();
+            } else {
+                all.add(entry.getValue());
+            }
+            allErrors += operationErrors;
+        }
+        return new LoadReport(options, operations, OperationReport.of("TOTAL", all, allErrors, seconds));
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-24s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (OperationReport operation : operations) {
+            print(out, operation);
+        }
+        print(out, total);
+    }
+
+    private void print(PrintStream out, OperationReport operation) {
+        out.printf("%-24s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                operation.operation(), operation.requests(), operation.errors(), operation.throughput(),
+                operation.p50(), operation.p90(), operation.p99(), operation.p999(), operation.max());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.blog.loadtest;
+
+import com.example.blog.BlogApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.File;
+
+//Seeds the database, starts the application on a random port and runs the load driver against it.
+//By default everything runs in this JVM against in-memory H2, give "--jdbc-url" (and username/password)
+//of an empty local Postgres database to test against Postgres instead. With "--base-url" nothing is seeded
+//or started, the driver just sends requests to an already running application (seeded with the same options).
+//Run it with: mvn -P loadtest test-compile exec:exec (options are properties of the "loadtest" profile)
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.baseUrl();
+        try {
+            if (baseUrl == null) {
+                context = start(options);
+                baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            }
+
+            LoadReport report = new LoadDriver(baseUrl, options, objectMapper).run();
+            report.print(System.out);
+            File result = new File(options.result());
+            if (result.getParentFile() != null) {
+                result.getParentFile().mkdirs();
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(result, report);
+            System.out.println("Results saved to " + result.getPath());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    //Schema is created and data seeded before the application starts, because the application builds its
+    //search index and name indexes from the database when it starts
+    private static ConfigurableApplicationContext start(LoadTestOptions options) throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                options.jdbcUrl(), options.jdbcUsername(), options.jdbcPassword()
+        );
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        long started = System.nanoTime();
+        new DataGenerator(dataSource, options).generate();
+        System.out.printf("Seeded %d users, %d posts and %d comments in %d ms%n",
+                options.users(), options.posts(), options.comments(), (System.nanoTime() - started) / 1_000_000);
+
+        return new SpringApplicationBuilder(BlogApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + options.jdbcUrl(),
+                        "--spring.datasource.username=" + options.jdbcUsername(),
+                        "--spring.datasource.password=" + options.jdbcPassword(),
+                        //Driver is found from the url, so both H2 and Postgres work
+                        "--spring.datasource.driver-class-name=",
+                        "--spring.jpa.show-sql=false"
+                );
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.blog.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+//Options of the load test, given as "--name=value" arguments (see the "loadtest" profile in pom.xml).
+//The same seed always generates the same data and the same sequence of requests of every worker
+record LoadTestOptions(
+        String jdbcUrl,
+        String jdbcUsername,
+        //Options are saved together with the results, but the password should not be
+        @JsonIgnore String jdbcPassword,
+        String baseUrl,
+        int users,
+        int categories,
+        int tags,
+        int posts,
+        int comments,
+        double zipfExponent,
+        long seed,
+        int threads,
+        Duration warmup,
+        Duration duration,
+        double writeRatio,
+        int loginUsers,
+        String result
+) {
+
+    private static final Set<String> KNOWN_OPTIONS = Set.of(
+            "jdbc-url", "jdbc-username", "jdbc-password", "base-url", "users", "categories", "tags", "posts",
+            "comments", "zipf-exponent", "seed", "threads", "warmup-seconds", "duration-seconds", "write-ratio",
+            "login-users", "result"
+    );
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argument '" + arg + "' is not in --name=value form");
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                values.getOrDefault("jdbc-url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1"),
+                values.getOrDefault("jdbc-username", "sa"),
+                values.getOrDefault("jdbc-password", ""),
+                emptyToNull(values.get("base-url")),
+                Integer.parseInt(values.getOrDefault("users", "1000")),
+                Integer.parseInt(values.getOrDefault("categories", "30")),
+                Integer.parseInt(values.getOrDefault("tags", "1000")),
+                Integer.parseInt(values.getOrDefault("posts", "20000")),
+                Integer.parseInt(values.getOrDefault("comments", "100000")),
+                Double.parseDouble(values.getOrDefault("zipf-exponent", "1.0")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Integer.parseInt(values.getOrDefault("threads", "32")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup-seconds", "15"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration-seconds", "60"))),
+                Double.parseDouble(values.getOrDefault("write-ratio", "0.05")),
+                Integer.parseInt(values.getOrDefault("login-users", "10")),
+                values.getOrDefault("result", "target/loadtest-result.json")
+        );
+        values.keySet().removeAll(KNOWN_OPTIONS);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        }
+        if (options.users() < 1 || options.categories() < 1 || options.tags() < 1 || options.posts() < 1) {
+            throw new IllegalArgumentException("There has to be at least one user, category, tag and post");
+        }
+        return options;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
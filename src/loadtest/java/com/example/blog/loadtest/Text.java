@@ -0,0 +1,37 @@
+package com.example.blog.loadtest;
+
+import java.util.Random;
+
+//Generates text of realistic length out of a small vocabulary, so search finds posts by any of the words
+final class Text {
+
+    static final String[] WORDS = {
+            "spring", "java", "database", "index", "query", "cache", "latency", "thread", "memory", "request",
+            "server", "client", "network", "disk", "transaction", "lock", "pool", "batch", "stream", "buffer",
+            "garbage", "collector", "heap", "stack", "compiler", "benchmark", "profile", "metric", "histogram",
+            "percentile", "throughput", "queue", "scheduler", "kernel", "socket", "protocol", "schema", "table",
+            "column", "row", "page", "cursor", "token", "session", "security", "password", "hash", "search",
+            "the", "a", "of", "and", "to", "in", "is", "that", "for", "with", "on", "as", "it", "this", "we"
+    };
+
+    private Text() {
+    }
+
+    static String of(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    //Log-normal length around the median, which is how lengths of posts and comments are usually spread:
+    //most of them are short, but there is a long tail of really long ones
+    static int length(Random random, int median, int min, int max) {
+        int length = (int) (median * Math.exp(0.8 * random.nextGaussian()));
+        return Math.max(min, Math.min(length, max));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.blog.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//Picks ranks 0..n-1, where rank k is picked with probability proportional to 1 / (k + 1)^exponent.
+//That is how popularity of tags, categories and posts usually looks like: few of them are very popular,
+//and most of them are barely ever used
+final class Zipf {
+
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.blog.config;
+
+import com.example.blog.security.ApplicationConfig;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//Caches themselves (their names, size and ttl) are configured in application.yml under "spring.cache",
+//and since they record stats, hits/misses/evictions can be seen under /actuator/metrics/cache.gets etc.
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    //Users cache needs much shorter ttl than the rest of the caches, so it has its own spec
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> usersCacheCustomizer(
+            @Value("${blog.cache.users.spec}") String spec
+    ) {
+        return cacheManager -> cacheManager.registerCustomCache(
+                ApplicationConfig.USERS_CACHE, Caffeine.from(spec).build()
+        );
+    }
+}
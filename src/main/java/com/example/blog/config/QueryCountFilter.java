@@ -0,0 +1,48 @@
+package com.example.blog.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+//Counts SQL statements of every request (including the ones of security filters, like loading the user),
+//and warns about requests which run more of them than "blog.query-count.warn-threshold", since that is
+//usually an N+1 problem (statement per post/comment) or a lookup which is done more than once
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final int warnThreshold;
+
+    public QueryCountFilter(@Value("${blog.query-count.warn-threshold}") int warnThreshold) {
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.QueryCount count = QueryCounter.stop();
+            if (count.statements() > warnThreshold) {
+                log.warn("{} {} executed {} SQL statements in {} ms",
+                        request.getMethod(), request.getRequestURI(), count.statements(), count.timeMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.blog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+//When "blog.query-count.header-enabled" is on, responses tell how many SQL statements the request executed
+//(X-Query-Count) and how long they took (X-Query-Time, in ms). Headers have to be set before the body is
+//written, so they are added here and not in QueryCountFilter (by then the response is already sent)
+@ControllerAdvice
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time";
+
+    private final boolean headerEnabled;
+
+    public QueryCountResponseAdvice(@Value("${blog.query-count.header-enabled}") boolean headerEnabled) {
+        this.headerEnabled = headerEnabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return headerEnabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response
+    ) {
+        QueryCounter.QueryCount count = QueryCounter.current();
+        response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(count.statements()));
+        response.getHeaders().set(QUERY_TIME_HEADER, String.valueOf(count.timeMillis()));
+        return body;
+    }
+}
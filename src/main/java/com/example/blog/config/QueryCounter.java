@@ -0,0 +1,48 @@
+package com.example.blog.config;
+
+//Counts SQL statements (and time spent executing them) on the current thread, between start() and stop().
+//QueryCountFilter counts them for every request and tests can count them for a single operation.
+//Statements executed while nothing is being counted (startup, background work...) are simply ignored
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static void start() {
+        CURRENT.set(new Counts());
+    }
+
+    //Returns what was counted since start() and stops counting
+    public static QueryCount stop() {
+        QueryCount count = current();
+        CURRENT.remove();
+        return count;
+    }
+
+    //Returns what was counted so far, or zero when nothing is being counted
+    public static QueryCount current() {
+        Counts counts = CURRENT.get();
+        return counts == null
+                ? new QueryCount(0, 0)
+                : new QueryCount(counts.statements, counts.timeMillis);
+    }
+
+    static void record(long elapsedMillis) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+            counts.timeMillis += elapsedMillis;
+        }
+    }
+
+    public record QueryCount(long statements, long timeMillis) {
+    }
+
+    //Only ever touched by its own thread, so it does not need to be thread safe
+    private static final class Counts {
+        private long statements;
+        private long timeMillis;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.blog.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+//Opt-in mode (see application-virtual-threads.yml) in which Tomcat handles every request on its own virtual thread,
+//and @Async/async MVC work runs on virtual threads too. Almost all the time of a request is spent waiting for the
+//database, and a blocked virtual thread does not hold an OS thread, so we are no longer limited by the size of the
+//Tomcat pool. The database is protected by ConcurrencyLimitedDataSource instead
+@Configuration
+@ConditionalOnProperty(name = "blog.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor
+    ) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    //Replaces the pool Spring Boot would create for @Async methods and async MVC requests
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Value("${blog.virtual-threads.max-db-concurrency}") int maxDbConcurrency,
+            @Value("${blog.virtual-threads.db-acquire-timeout}") Duration dbAcquireTimeout
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource(dataSource, maxDbConcurrency, dbAcquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
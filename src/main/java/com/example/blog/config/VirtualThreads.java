@@ -0,0 +1,24 @@
+package com.example.blog.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Virtual threads came in Java 21, while the project is still built for Java 17 (unless it is built with
+//"mvn -P java21"), so the executor is created through reflection and it fails on start on older Java
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(
+                    "Virtual threads need Java 21, turn off blog.virtual-threads.enabled or run on Java 21", e
+            );
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual thread executor could not be created", e);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.blog.controller;
 
 import com.example.blog.dto.CategoryDto;
+import com.example.blog.dto.NameCountResponse;
+import com.example.blog.entity.User;
 import com.example.blog.service.CategoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -43,6 +46,25 @@ public class CategoryController {
         return ResponseEntity.ok(service.searchCategory(category));
     }
 
+    //Not secured endpoint
+    //Names of categories which start with the prefix, used for autocomplete while user is typing
+    @GetMapping("/categories/autocomplete")
+    public ResponseEntity<List<NameCountResponse>> autocompleteCategories(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(service.autocompleteCategories(prefix, size));
+    }
+
+    //Not secured endpoint
+    //Categories with the most posts, with the number of their posts
+    @GetMapping("/categories/popular")
+    public ResponseEntity<List<NameCountResponse>> getPopularCategories(
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(service.getPopularCategories(size));
+    }
+
     //Not secured endpoint
     @GetMapping("/categories/all")
     public ResponseEntity<List<CategoryDto>> getAllCategories() {
@@ -68,27 +90,26 @@ public class CategoryController {
     public ResponseEntity<String> addCategoryToPost(
             @PathVariable String postTitle,
             @RequestBody @Valid CategoryDto request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.addCategoryToPost(postTitle, request, bearerToken));
+        return ResponseEntity.ok(service.addCategoryToPost(postTitle, request, user));
     }
 
     @PutMapping("/{postTitle}/categories/add-multi")
     public ResponseEntity<String> addCategoriesToPost(
             @PathVariable String postTitle,
             @RequestBody @Valid List<CategoryDto> request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        request.forEach(categoryDto -> service.addCategoryToPost(postTitle, categoryDto, bearerToken));
-        return ResponseEntity.ok("All categories added to the post '" + postTitle + "'");
+        return ResponseEntity.ok(service.addCategoriesToPost(postTitle, request, user));
     }
 
     @DeleteMapping("/{postTitle}/categories/delete")
     public ResponseEntity<String> deleteCategoriesFromPost(
             @PathVariable String postTitle,
             @RequestBody @Valid CategoryDto request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.deleteCategoryFromPost(postTitle, request, bearerToken));
+        return ResponseEntity.ok(service.deleteCategoryFromPost(postTitle, request, user));
     }
 }
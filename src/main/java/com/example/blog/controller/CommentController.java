@@ -2,14 +2,17 @@ package com.example.blog.controller;
 
 import com.example.blog.dto.CommentRequest;
 import com.example.blog.dto.CommentResponse;
+import com.example.blog.dto.PageResponse;
+import com.example.blog.entity.User;
 import com.example.blog.service.CommentService;
+import com.example.blog.service.ContentVersion;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping(path = "/api/v1/posts")
@@ -22,9 +25,9 @@ public class CommentController {
     public ResponseEntity<CommentResponse> createComment(
             @PathVariable String postTitle,
             @RequestBody @Valid CommentRequest request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
             ) {
-        return new ResponseEntity<>(service.createComment(postTitle, request, bearerToken), HttpStatus.CREATED);
+        return new ResponseEntity<>(service.createComment(postTitle, request, user), HttpStatus.CREATED);
     }
 
     //Not secured endpoint
@@ -37,11 +40,21 @@ public class CommentController {
     }
 
     //Not secured endpoint
+    //Comments are returned page by page (newest first), to get the next page
+    //send the "next" cursor from the previous response. Every page has ETag, if the client sends it back
+    //(If-None-Match) and none of the comments on the page changed, it gets 304 without the comments
     @GetMapping("/{postTitle}/comments/all")
-    public ResponseEntity<List<CommentResponse>> getAllComments(
-            @PathVariable String postTitle
+    public ResponseEntity<PageResponse<CommentResponse>> getAllComments(
+            @PathVariable String postTitle,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${blog.pagination.default-size}") int size,
+            WebRequest webRequest
     ) {
-        return ResponseEntity.ok(service.getAllComments(postTitle));
+        ContentVersion version = service.getAllCommentsVersion(postTitle, cursor, size);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok(service.getAllComments(postTitle, cursor, size));
     }
 
     @PutMapping("/{postTitle}/comments/{commentId}/update")
@@ -49,18 +62,18 @@ public class CommentController {
             @PathVariable String postTitle,
             @PathVariable Long commentId,
             @RequestBody @Valid CommentRequest request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.updateComment(postTitle, commentId, request, bearerToken));
+        return ResponseEntity.ok(service.updateComment(postTitle, commentId, request, user));
     }
 
     @DeleteMapping("/{postTitle}/comments/{commentId}/delete")
     public ResponseEntity<String> deleteComment(
             @PathVariable String postTitle,
             @PathVariable Long commentId,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.deleteComment(postTitle, commentId, bearerToken));
+        return ResponseEntity.ok(service.deleteComment(postTitle, commentId, user));
     }
 
 }
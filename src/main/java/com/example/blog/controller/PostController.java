@@ -1,16 +1,22 @@
 package com.example.blog.controller;
 
+import com.example.blog.dto.PageResponse;
 import com.example.blog.dto.PostRequest;
 import com.example.blog.dto.PostResponse;
+import com.example.blog.dto.PostSearchResponse;
 import com.example.blog.dto.PostUpdateRequest;
+import com.example.blog.dto.PostView;
+import com.example.blog.entity.User;
+import com.example.blog.service.ContentVersion;
 import com.example.blog.service.PostService;
+import com.example.blog.service.VersionedPost;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping(path = "/api/v1/posts")
@@ -22,54 +28,105 @@ public class PostController {
     @PostMapping("/create")
     public ResponseEntity<PostResponse> createPost(
             @RequestBody @Valid PostRequest request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return new ResponseEntity<>(service.createPost(request, bearerToken), HttpStatus.CREATED);
+        return new ResponseEntity<>(service.createPost(request, user), HttpStatus.CREATED);
     }
 
-    //This endpoint is not secured, so anyone can see posts
+    //This endpoint is not secured, so anyone can see posts.
+    //Response has ETag and Last-Modified (version of the post), if the client sends them back
+    //(If-None-Match/If-Modified-Since) and the post did not change, it gets 304 without the post.
+    //Version comes from the same (usually cached) entry as the post, so it always matches the body
     @GetMapping("/{postTitle}")
     public ResponseEntity<PostResponse> getPost(
-            @PathVariable String postTitle
+            @PathVariable String postTitle,
+            WebRequest webRequest
     ) {
-        return ResponseEntity.ok(service.getPost(postTitle));
+        VersionedPost post = service.getPost(postTitle);
+        ContentVersion version = post.getVersion();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok(post.getPost());
     }
 
-    //This endpoint is not secured, so anyone can see all posts
+    //This endpoint is not secured, so anyone can see all posts.
+    //Posts are returned page by page (newest first), to get the next page
+    //send the "next" cursor from the previous response.
+    //With "view=summary" posts are returned without their content (only an excerpt of it).
+    //Every page has ETag (made from versions of its posts), so it can be revalidated the same way as the post
     @GetMapping("/all")
-    public ResponseEntity<List<PostResponse>> getAllPosts() {
-        return ResponseEntity.ok(service.getAllPosts());
+    public ResponseEntity<PageResponse<?>> getAllPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${blog.pagination.default-size}") int size,
+            @RequestParam(defaultValue = "full") String view,
+            WebRequest webRequest
+    ) {
+        PostView postView = PostView.of(view);
+        ContentVersion version = service.getAllPostsVersion(cursor, size, postView);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModifiedMillis())) {
+            return null;
+        }
+        if (postView == PostView.SUMMARY) {
+            return ResponseEntity.ok(service.getAllPostSummaries(cursor, size));
+        }
+        return ResponseEntity.ok(service.getAllPosts(cursor, size));
     }
 
     @PutMapping("/update/{postTitle}")
     public ResponseEntity<PostResponse> updatePost(
             @PathVariable String postTitle,
             @RequestBody @Valid PostUpdateRequest request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.updatePost(postTitle, request, bearerToken));
+        return ResponseEntity.ok(service.updatePost(postTitle, request, user));
     }
 
     @DeleteMapping("/{postTitle}")
     public ResponseEntity<String> deletePost(
             @PathVariable String postTitle,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.deletePost(postTitle, bearerToken));
+        return ResponseEntity.ok(service.deletePost(postTitle, user));
     }
 
     @GetMapping("/all-by-category")
-    public ResponseEntity<List<PostResponse>> getAllPostsByCategory(
-            @RequestParam String categoryName
+    public ResponseEntity<PageResponse<?>> getAllPostsByCategory(
+            @RequestParam String categoryName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${blog.pagination.default-size}") int size,
+            @RequestParam(defaultValue = "full") String view
     ) {
-        return ResponseEntity.ok(service.getAllPostsByCategory(categoryName));
+        if (PostView.of(view) == PostView.SUMMARY) {
+            return ResponseEntity.ok(service.getAllPostSummariesByCategory(categoryName, cursor, size));
+        }
+        return ResponseEntity.ok(service.getAllPostsByCategory(categoryName, cursor, size));
     }
 
     @GetMapping("/all-by-tag")
-    public ResponseEntity<List<PostResponse>> getAllPostsByTag(
-            @RequestParam String tagName
+    public ResponseEntity<PageResponse<?>> getAllPostsByTag(
+            @RequestParam String tagName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${blog.pagination.default-size}") int size,
+            @RequestParam(defaultValue = "full") String view
+    ) {
+        if (PostView.of(view) == PostView.SUMMARY) {
+            return ResponseEntity.ok(service.getAllPostSummariesByTag(tagName, cursor, size));
+        }
+        return ResponseEntity.ok(service.getAllPostsByTag(tagName, cursor, size));
+    }
+
+    //Full text search over titles and content of the posts, best matches first. Results can be narrowed
+    //down to posts with given category and/or tag, and are paged the same way as /all (with "next" cursor)
+    @GetMapping("/search")
+    public ResponseEntity<PageResponse<PostSearchResponse>> searchPosts(
+            @RequestParam String query,
+            @RequestParam(required = false) String categoryName,
+            @RequestParam(required = false) String tagName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${blog.pagination.default-size}") int size
     ) {
-        return ResponseEntity.ok(service.getAllPostsByTag(tagName));
+        return ResponseEntity.ok(service.searchPosts(query, categoryName, tagName, cursor, size));
     }
 
 }
@@ -1,11 +1,14 @@
 package com.example.blog.controller;
 
 import com.example.blog.dto.TagDto;
+import com.example.blog.dto.NameCountResponse;
+import com.example.blog.entity.User;
 import com.example.blog.service.TagService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -41,6 +44,25 @@ public class TagController {
         return ResponseEntity.ok(service.searchTag(tag));
     }
 
+    //Not secured endpoint
+    //Names of tags which start with the prefix, used for autocomplete while user is typing
+    @GetMapping("/tags/autocomplete")
+    public ResponseEntity<List<NameCountResponse>> autocompleteTags(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(service.autocompleteTags(prefix, size));
+    }
+
+    //Not secured endpoint
+    //Tags with the most posts, with the number of their posts
+    @GetMapping("/tags/popular")
+    public ResponseEntity<List<NameCountResponse>> getPopularTags(
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return ResponseEntity.ok(service.getPopularTags(size));
+    }
+
     //Not secured endpoint
     @GetMapping("/tags/all")
     public ResponseEntity<List<TagDto>> getAllTags() {
@@ -66,27 +88,26 @@ public class TagController {
     public ResponseEntity<String> addTagToPost(
             @PathVariable String postTitle,
             @RequestBody @Valid TagDto request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.addTagToPost(postTitle, request, bearerToken));
+        return ResponseEntity.ok(service.addTagToPost(postTitle, request, user));
     }
 
     @PutMapping("/{postTitle}/tags/add-multi")
     public ResponseEntity<String> addTagsToPost(
             @PathVariable String postTitle,
             @RequestBody @Valid List<TagDto> request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        request.forEach(tagDto -> service.addTagToPost(postTitle, tagDto, bearerToken));
-        return ResponseEntity.ok("All tags added to the post '" + postTitle + "'");
+        return ResponseEntity.ok(service.addTagsToPost(postTitle, request, user));
     }
 
     @DeleteMapping("/{postTitle}/tags/delete")
     public ResponseEntity<String> deleteTagFromPost(
             @PathVariable String postTitle,
             @RequestBody @Valid TagDto request,
-            @RequestHeader("Authorization") String bearerToken
+            @AuthenticationPrincipal User user
     ) {
-        return ResponseEntity.ok(service.deleteTagFromPost(postTitle, request, bearerToken));
+        return ResponseEntity.ok(service.deleteTagFromPost(postTitle, request, user));
     }
 }
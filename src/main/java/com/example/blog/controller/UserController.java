@@ -4,6 +4,7 @@ import com.example.blog.dto.AuthenticationResponse;
 import com.example.blog.dto.UserLoginRequest;
 import com.example.blog.dto.UserRegisterRequest;
 import com.example.blog.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -13,6 +14,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping(path = "/api/v1/user")
 @RequiredArgsConstructor
@@ -20,17 +23,20 @@ public class UserController {
 
     private final UserService service;
 
+    //Response is sent when the password is hashed (asynchronously, see UserService.register)
     @PostMapping("/register")
-    public ResponseEntity<AuthenticationResponse> register(
+    public CompletableFuture<ResponseEntity<AuthenticationResponse>> register(
             @RequestBody @Valid UserRegisterRequest request
     ) {
-        return new ResponseEntity<>(service.register(request), HttpStatus.CREATED);
+        return service.register(request).thenApply(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
     }
 
     @PostMapping("/login")
     public ResponseEntity<AuthenticationResponse> login(
-            @RequestBody @Valid UserLoginRequest request
+            @RequestBody @Valid UserLoginRequest request,
+            HttpServletRequest servletRequest
     ) {
-        return ResponseEntity.ok(service.login(request));
+        //Behind a proxy this is the address of the proxy, unless server.forward-headers-strategy is set
+        return ResponseEntity.ok(service.login(request, servletRequest.getRemoteAddr()));
     }
 }
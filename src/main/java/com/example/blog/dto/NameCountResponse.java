@@ -0,0 +1,17 @@
+package com.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NameCountResponse {
+    //Name of the category/tag
+    private String name;
+    //Number of posts with that category/tag
+    private long postCount;
+}
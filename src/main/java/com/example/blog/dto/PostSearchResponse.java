@@ -0,0 +1,23 @@
+package com.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSearchResponse {
+    private String title;
+    //Part(s) of the content which match the query, with matched words wrapped in <b></b>
+    private String snippet;
+    private List<String> categories;
+    private List<String> tags;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,13 @@
+package com.example.blog.dto;
+
+//How posts are returned by endpoints which return more than one post,
+//FULL returns whole posts and SUMMARY returns posts without the content (just excerpt of it)
+public enum PostView {
+    FULL,
+    SUMMARY;
+
+    //Clients send it in lower case (?view=summary), anything unknown falls back to FULL
+    public static PostView of(String view) {
+        return SUMMARY.name().equalsIgnoreCase(view) ? SUMMARY : FULL;
+    }
+}
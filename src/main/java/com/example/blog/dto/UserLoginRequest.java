@@ -1,6 +1,7 @@
 package com.example.blog.dto;
 
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,9 +13,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class UserLoginRequest {
+    @NotBlank(message = "Email should not be blank")
     @Email(message = "Please enter valid email")
     private String email;
 
+    @NotBlank(message = "Password should not be blank")
     @Pattern(regexp = "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&.])[A-Za-z\\d@$!%*?&.]{8,16}$",
             message = "Password should contain at least one lower case letter, one upper case letter," +
                     " one number, one special character, and it should contain 8 to 16 character")
@@ -1,5 +1,6 @@
 package com.example.blog.dto;
 
+import com.example.blog.validation.PasswordsMatch;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -12,6 +13,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@PasswordsMatch
 public class UserRegisterRequest {
 
     @NotBlank(message = "First name should not be blank")
@@ -28,6 +30,6 @@ public class UserRegisterRequest {
                     " one number, one special character, and it should contain 8 to 16 character")
     private String password;
 
-    // no need for pattern here because we will be checking if password match anyway
+    // no need for pattern here because we will be checking if password match anyway (@PasswordsMatch)
     private String repeatPassword;
 }
@@ -14,13 +14,18 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "categories")
+@Table(
+        name = "categories",
+        uniqueConstraints = @UniqueConstraint(
+                name = "category_name_unique", columnNames = "name"
+        )
+)
 public class Category {
     @Id
     @SequenceGenerator(
             name = "categories_id_sequence",
             sequenceName = "categories_id_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -38,6 +43,15 @@ public class Category {
     )
     private String name;
 
+    //Number of posts with this category, it is changed only by CategoryRepository.addToPostCount (saving the category
+    //never writes it), so saving a category that was loaded earlier can not overwrite the count with an old value
+    @Column(
+            name = "post_count",
+            nullable = false,
+            updatable = false
+    )
+    private long postCount;
+
     @OneToMany(
             mappedBy = "category",
             cascade = CascadeType.ALL,
@@ -13,14 +13,20 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "comments")
+@Table(
+        name = "comments",
+        indexes = {
+                @Index(name = "comment_post_id_created_at_id_idx", columnList = "post_id, created_at desc, id desc"),
+                @Index(name = "comment_user_id_idx", columnList = "user_id")
+        }
+)
 public class Comment {
 
     @Id
     @SequenceGenerator(
             name = "comments_id_sequence",
             sequenceName = "comments_id_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -15,14 +15,23 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "posts")
+@Table(
+        name = "posts",
+        uniqueConstraints = @UniqueConstraint(
+                name = "post_title_user_id_unique", columnNames = {"title", "user_id"}
+        ),
+        indexes = {
+                @Index(name = "post_created_at_id_idx", columnList = "created_at desc, id desc"),
+                @Index(name = "post_user_id_idx", columnList = "user_id")
+        }
+)
 public class Post {
 
     @Id
     @SequenceGenerator(
             name = "posts_id_sequence",
             sequenceName = "posts_id_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -59,6 +68,23 @@ public class Post {
     )
     private LocalDateTime updatedAt;
 
+    //Version and modified at are changed only by PostRepository.touch* methods (saving the post never writes them),
+    //see PostCache. Modified at of a new post is set by the database (to the time it was inserted)
+    @Column(
+            name = "version",
+            nullable = false,
+            updatable = false
+    )
+    private long version;
+
+    @Column(
+            name = "modified_at",
+            nullable = false,
+            insertable = false,
+            updatable = false
+    )
+    private LocalDateTime modifiedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(
             name = "user_id",
@@ -11,7 +11,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "post_categories")
+@Table(
+        name = "post_categories",
+        indexes = @Index(name = "post_categories_category_id_post_id_idx", columnList = "category_id, post_id")
+)
 public class PostCategory {
 
     @EmbeddedId
@@ -11,7 +11,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "post_tags")
+@Table(
+        name = "post_tags",
+        indexes = @Index(name = "post_tags_tag_id_post_id_idx", columnList = "tag_id, post_id")
+)
 public class PostTag {
 
     @EmbeddedId
@@ -14,13 +14,18 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "tags")
+@Table(
+        name = "tags",
+        uniqueConstraints = @UniqueConstraint(
+                name = "tag_name_unique", columnNames = "name"
+        )
+)
 public class Tag {
     @Id
     @SequenceGenerator(
             name = "tags_id_sequence",
             sequenceName = "tags_id_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -38,6 +43,15 @@ public class Tag {
     )
     private String name;
 
+    //Number of posts with this tag, it is changed only by TagRepository.addToPostCount (saving the tag
+    //never writes it), so saving a tag that was loaded earlier can not overwrite the count with an old value
+    @Column(
+            name = "post_count",
+            nullable = false,
+            updatable = false
+    )
+    private long postCount;
+
     @OneToMany(
             mappedBy = "tag",
             cascade = CascadeType.ALL,
@@ -1,5 +1,6 @@
 package com.example.blog.entity;
 
+import com.example.blog.security.UserCacheListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,6 +19,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(UserCacheListener.class)
 @Table(
         name = "users",
         uniqueConstraints = @UniqueConstraint(
@@ -30,7 +32,7 @@ public class User implements UserDetails {
     @SequenceGenerator(
             name = "users_id_sequence",
             sequenceName = "users_id_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -66,12 +68,6 @@ public class User implements UserDetails {
     )
     private String password;
 
-    @Column(
-            name = "repeated_password",
-            nullable = false
-    )
-    private String repeatPassword;
-
     @Enumerated(EnumType.STRING)
     private Role role;
 
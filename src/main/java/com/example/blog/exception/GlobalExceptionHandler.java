@@ -1,6 +1,7 @@
 package com.example.blog.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -32,14 +33,6 @@ public class GlobalExceptionHandler {
         return errorMap;
     }
 
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    @ExceptionHandler({InvalidRepeatedPasswordException.class})
-    public Map<String, String> handleMismatchedPasswords(InvalidRepeatedPasswordException ex) {
-        Map<String, String> errorMap = new HashMap<>();
-        errorMap.put("Error", ex.getMessage());
-        return errorMap;
-    }
-
     @ResponseStatus(HttpStatus.NOT_FOUND)
     @ExceptionHandler({UserNotFoundException.class})
     public Map<String, String> handleNonExistingUser(UserNotFoundException ex) {
@@ -136,4 +129,37 @@ public class GlobalExceptionHandler {
         return errorMap;
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler({InvalidCursorException.class})
+    public Map<String, String> handleInvalidCursor(InvalidCursorException ex) {
+        Map<String, String> errorMap = new HashMap<>();
+        errorMap.put("Error", ex.getMessage());
+        return errorMap;
+    }
+
+    //Wrong password or email of the user which does not exist (we do not tell which one it is)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    @ExceptionHandler({BadCredentialsException.class})
+    public Map<String, String> handleBadCredentials(BadCredentialsException ex) {
+        Map<String, String> errorMap = new HashMap<>();
+        errorMap.put("Error", "Invalid email or password!");
+        return errorMap;
+    }
+
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    @ExceptionHandler({TooManyLoginAttemptsException.class})
+    public Map<String, String> handleTooManyLoginAttempts(TooManyLoginAttemptsException ex) {
+        Map<String, String> errorMap = new HashMap<>();
+        errorMap.put("Error", ex.getMessage());
+        return errorMap;
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler({ServiceBusyException.class})
+    public Map<String, String> handleServiceBusy(ServiceBusyException ex) {
+        Map<String, String> errorMap = new HashMap<>();
+        errorMap.put("Error", ex.getMessage());
+        return errorMap;
+    }
+
 }
@@ -0,0 +1,13 @@
+package com.example.blog.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    private String message;
+
+    public InvalidCursorException() {
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.blog.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    private String message;
+
+    public ServiceBusyException() {
+    }
+
+    public ServiceBusyException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
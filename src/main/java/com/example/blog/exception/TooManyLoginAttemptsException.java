@@ -0,0 +1,13 @@
+package com.example.blog.exception;
+
+public class TooManyLoginAttemptsException extends RuntimeException {
+    private String message;
+
+    public TooManyLoginAttemptsException() {
+    }
+
+    public TooManyLoginAttemptsException(String message) {
+        super(message);
+        this.message = message;
+    }
+}
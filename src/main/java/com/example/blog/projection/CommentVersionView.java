@@ -0,0 +1,12 @@
+package com.example.blog.projection;
+
+import java.time.LocalDateTime;
+
+//Projection of just the id and updated at of the comment, used to answer conditional requests
+//for pages of comments without loading their content and users
+public interface CommentVersionView {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,18 @@
+package com.example.blog.projection;
+
+import java.time.LocalDateTime;
+
+//Projection of a comment together with the email of its user (fetched with a join in the same query),
+//used when comments are listed, so users of the comments do not have to be loaded one by one
+public interface CommentView {
+
+    Long getId();
+
+    String getUserName();
+
+    String getContent();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,9 @@
+package com.example.blog.projection;
+
+//Projection of a category/tag name together with the number of posts that have it
+public interface NameCountView {
+
+    String getName();
+
+    long getPostCount();
+}
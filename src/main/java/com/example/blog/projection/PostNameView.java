@@ -0,0 +1,10 @@
+package com.example.blog.projection;
+
+//Projection used when we need only names of categories/tags together with the id
+//of the post they belong to, so we can fetch them for many posts with one query
+public interface PostNameView {
+
+    Long getPostId();
+
+    String getName();
+}
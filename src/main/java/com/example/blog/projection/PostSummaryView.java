@@ -0,0 +1,18 @@
+package com.example.blog.projection;
+
+import java.time.LocalDateTime;
+
+//Projection of a post without its content (only the beginning of it, excerpt),
+//used when posts are listed, and we do not need whole posts
+public interface PostSummaryView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
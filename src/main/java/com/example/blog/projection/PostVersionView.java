@@ -0,0 +1,14 @@
+package com.example.blog.projection;
+
+import java.time.LocalDateTime;
+
+//Projection of just the id and version of the post, used to make the ETag of a page of posts
+//without loading the content, categories and tags of its posts
+public interface PostVersionView {
+
+    Long getId();
+
+    long getVersion();
+
+    LocalDateTime getModifiedAt();
+}
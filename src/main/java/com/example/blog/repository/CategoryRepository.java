@@ -1,15 +1,37 @@
 package com.example.blog.repository;
 
 import com.example.blog.entity.Category;
+import com.example.blog.projection.NameCountView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
 
-    Category findByName(String name);
+    Optional<Category> findByName(String name);
+
+    //Finds all categories with given names in one query (where name in (...))
+    List<Category> findAllByNameIn(Collection<String> names);
+
+    //Every category with the number of its posts, in one query (used to load CategoryNameIndex)
+    @Query("select c.name as name, c.postCount as postCount from Category c")
+    List<NameCountView> findAllWithPostCount();
+
+    //Categories with the most posts (ties in alphabetical order), uses category_post_count_name_idx
+    @Query("select c.name as name, c.postCount as postCount from Category c order by c.postCount desc, c.name")
+    List<NameCountView> findPopular(Pageable pageable);
 
-    void deleteByName(String name);
+    //Adds delta to post counts of the categories with given names, see TagRepository.addToPostCount
+    @Modifying
+    @Query(value = "update categories set post_count = post_count + :delta where name in (:names)", nativeQuery = true)
+    int addToPostCount(Collection<String> names, long delta);
 }
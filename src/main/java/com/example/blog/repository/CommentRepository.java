@@ -3,21 +3,44 @@ package com.example.blog.repository;
 import com.example.blog.entity.Comment;
 import com.example.blog.entity.Post;
 import com.example.blog.entity.User;
+import com.example.blog.projection.CommentVersionView;
+import com.example.blog.projection.CommentView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    boolean existsByIdAndPost(Long id, Post post);
-
-    Comment findByIdAndPost(Long id, Post post);
-
-    List<Comment> findAllByPost(Post post);
-
-    boolean existsByIdAndPostAndUser(Long id, Post post, User user);
-
-    Comment findByIdAndPostAndUser(Long id, Post post, User user);
+    Optional<Comment> findByIdAndPost(Long id, Post post);
+
+    //Deletes all comments of the post with one statement, instead of loading them and deleting them one by one
+    @Modifying
+    @Query("delete from Comment c where c.post.id = :postId")
+    int deleteAllByPostId(Long postId);
+
+    Optional<Comment> findByIdAndPostAndUser(Long id, Post post, User user);
+
+    //Keyset pagination of the comments of the post, newest first (same as PostRepository.findPage).
+    //Email of the user is joined in the same query, so listing a page is always one query
+    //no matter how many comments (and their users) it has. Post is given by id, so it does not have to be loaded
+    @Query("select c.id as id, u.email as userName, c.content as content, " +
+            "c.createdAt as createdAt, c.updatedAt as updatedAt from Comment c join c.user u " +
+            "where c.post.id = :postId " +
+            "and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id)) " +
+            "order by c.createdAt desc, c.id desc")
+    List<CommentView> findPageByPostId(Long postId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    //Same page as findPageByPostId, but just ids and update times of its comments (ETag of the page)
+    @Query("select c.id as id, c.updatedAt as updatedAt from Comment c " +
+            "where c.post.id = :postId " +
+            "and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id)) " +
+            "order by c.createdAt desc, c.id desc")
+    List<CommentVersionView> findVersionPageByPostId(Long postId, LocalDateTime createdAt, Long id, Pageable pageable);
 }
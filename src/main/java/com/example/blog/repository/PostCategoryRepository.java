@@ -4,19 +4,41 @@ import com.example.blog.entity.Category;
 import com.example.blog.entity.Post;
 import com.example.blog.entity.PostCategory;
 import com.example.blog.entity.PostCategoryId;
+import com.example.blog.projection.PostNameView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostCategoryRepository extends JpaRepository<PostCategory, PostCategoryId> {
 
     boolean existsByPostAndCategory(Post post, Category category);
 
-    PostCategory findByPostAndCategory(Post post, Category category);
+    Optional<PostCategory> findByPostAndCategory(Post post, Category category);
 
     List<PostCategory> findByPost(Post post);
 
     List<PostCategory> findByCategory(Category category);
+
+    @Query("select pc.post.id as postId, pc.category.name as name " +
+            "from PostCategory pc where pc.post.id in :postIds")
+    List<PostNameView> findNamesByPostIds(Collection<Long> postIds);
+
+    @Query("select pc.post.id from PostCategory pc where pc.category.name = :name")
+    List<Long> findPostIdsByCategoryName(String name);
+
+    //Removes all categories from the post with one statement (used when the post is deleted)
+    @Modifying
+    @Query("delete from PostCategory pc where pc.postCategoryId.postId = :postId")
+    int deleteAllByPostId(Long postId);
+
+    //Removes the category from all posts with one statement (used when the category is deleted)
+    @Modifying
+    @Query("delete from PostCategory pc where pc.postCategoryId.categoryId = :categoryId")
+    int deleteAllByCategoryId(Long categoryId);
 }
@@ -1,21 +1,111 @@
 package com.example.blog.repository;
 
+import com.example.blog.entity.Category;
 import com.example.blog.entity.Post;
+import com.example.blog.entity.Tag;
 import com.example.blog.entity.User;
+import com.example.blog.projection.PostSummaryView;
+import com.example.blog.projection.PostVersionView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
     boolean existsByTitleAndUser(String title, User user);
 
-    Post findByTitleAndUser(String title, User user);
+    //Single lookups return Optional, so services can find the entity and handle the missing one
+    //with one query, instead of asking if it exists first and then fetching it (two queries)
+    Optional<Post> findByTitleAndUser(String title, User user);
+
+    //Id of the post with the title which belongs to the user (ownership check), without loading the post
+    @Query("select p.id from Post p where p.title = :title and p.user = :user")
+    Optional<Long> findIdByTitleAndUser(String title, User user);
+
+    //Deletes the post with one statement and returns the number of deleted rows (0 if the user has no such post).
+    //Comments, categories and tags of the post are not cascaded, they have to be deleted before it
+    @Modifying
+    @Query("delete from Post p where p.title = :title and p.user = :user")
+    int deleteByTitleAndUser(String title, User user);
+
+    Optional<Post> findByTitle(String title);
+
+    @Query("select p.id from Post p where p.title = :title")
+    Optional<Long> findIdByTitle(String title);
+
+    //Increments version of the post and sets the time it was modified at, see PostCache
+    @Modifying
+    @Query("update Post p set p.version = p.version + 1, p.modifiedAt = :modifiedAt where p.id = :id")
+    int touchById(Long id, LocalDateTime modifiedAt);
+
+    //Same as touchById, but for every post with the tag/category. Posts are selected by the subquery,
+    //so it is one statement no matter how many posts have the tag/category
+    @Modifying
+    @Query("update Post p set p.version = p.version + 1, p.modifiedAt = :modifiedAt " +
+            "where p.id in (select pt.postTagId.postId from PostTag pt where pt.postTagId.tagId = :tagId)")
+    int touchByTagId(Long tagId, LocalDateTime modifiedAt);
+
+    @Modifying
+    @Query("update Post p set p.version = p.version + 1, p.modifiedAt = :modifiedAt " +
+            "where p.id in (select pc.postCategoryId.postId from PostCategory pc where pc.postCategoryId.categoryId = :categoryId)")
+    int touchByCategoryId(Long categoryId, LocalDateTime modifiedAt);
+
+    //Length of the excerpt returned in post summaries
+    int EXCERPT_LENGTH = 200;
+
+    //Keyset pagination queries, newest posts first. Every page is fetched using (created at, id) of the last
+    //post from the previous page (for the first page we are using PageCursor.FIRST_PAGE). Size of the page
+    //is limited with Pageable (no count query is run)
+    @Query("select p from Post p " +
+            "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<Post> findPage(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    //Same page as findPage, but just ids and versions of its posts (ETag of the page)
+    @Query("select p.id as id, p.version as version, p.modifiedAt as modifiedAt from Post p " +
+            "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostVersionView> findVersionPage(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query("select p from Post p join p.postCategories pc where pc.category = :category " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<Post> findPageByCategory(Category category, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query("select p from Post p join p.postTags pt where pt.tag = :tag " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<Post> findPageByTag(Tag tag, LocalDateTime createdAt, Long id, Pageable pageable);
 
-    boolean existsByTitle(String title);
+    //Same as the three queries above, but instead of whole posts they return just their summaries,
+    //so only the excerpt of the content (which is TEXT and can be big) is read from the database
+    @Query("select p.id as id, p.title as title, substring(p.content, 1, " + EXCERPT_LENGTH + ") as excerpt, " +
+            "p.createdAt as createdAt, p.updatedAt as updatedAt from Post p " +
+            "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostSummaryView> findSummaryPage(LocalDateTime createdAt, Long id, Pageable pageable);
 
-    Post findByTitle(String title);
+    @Query("select p.id as id, p.title as title, substring(p.content, 1, " + EXCERPT_LENGTH + ") as excerpt, " +
+            "p.createdAt as createdAt, p.updatedAt as updatedAt from Post p " +
+            "join p.postCategories pc where pc.category = :category " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostSummaryView> findSummaryPageByCategory(
+            Category category, LocalDateTime createdAt, Long id, Pageable pageable
+    );
 
-    void deleteByTitleAndUser(String title, User user);
+    @Query("select p.id as id, p.title as title, substring(p.content, 1, " + EXCERPT_LENGTH + ") as excerpt, " +
+            "p.createdAt as createdAt, p.updatedAt as updatedAt from Post p " +
+            "join p.postTags pt where pt.tag = :tag " +
+            "and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostSummaryView> findSummaryPageByTag(Tag tag, LocalDateTime createdAt, Long id, Pageable pageable);
 
 }
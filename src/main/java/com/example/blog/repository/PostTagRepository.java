@@ -4,19 +4,41 @@ import com.example.blog.entity.Post;
 import com.example.blog.entity.PostTag;
 import com.example.blog.entity.PostTagId;
 import com.example.blog.entity.Tag;
+import com.example.blog.projection.PostNameView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostTagRepository extends JpaRepository<PostTag, PostTagId> {
 
     boolean existsByPostAndTag(Post post, Tag tag);
 
-    PostTag findByPostAndTag(Post post, Tag tag);
+    Optional<PostTag> findByPostAndTag(Post post, Tag tag);
 
     List<PostTag> findByPost(Post post);
 
     List<PostTag> findByTag(Tag tag);
+
+    @Query("select pt.post.id as postId, pt.tag.name as name " +
+            "from PostTag pt where pt.post.id in :postIds")
+    List<PostNameView> findNamesByPostIds(Collection<Long> postIds);
+
+    @Query("select pt.post.id from PostTag pt where pt.tag.name = :name")
+    List<Long> findPostIdsByTagName(String name);
+
+    //Removes all tags from the post with one statement (used when the post is deleted)
+    @Modifying
+    @Query("delete from PostTag pt where pt.postTagId.postId = :postId")
+    int deleteAllByPostId(Long postId);
+
+    //Removes the tag from all posts with one statement (used when the tag is deleted)
+    @Modifying
+    @Query("delete from PostTag pt where pt.postTagId.tagId = :tagId")
+    int deleteAllByTagId(Long tagId);
 }
@@ -1,9 +1,15 @@
 package com.example.blog.repository;
 
 import com.example.blog.entity.Tag;
+import com.example.blog.projection.NameCountView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,8 +19,20 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
 
     Optional<Tag> findByName(String name);
 
-    //So we do not have to use .get() on Optional
-    Tag findTagByName(String name);
+    //Finds all tags with given names in one query (where name in (...))
+    List<Tag> findAllByNameIn(Collection<String> names);
 
-    void deleteByName(String name);
+    //Every tag with the number of its posts, in one query (used to load TagNameIndex)
+    @Query("select t.name as name, t.postCount as postCount from Tag t")
+    List<NameCountView> findAllWithPostCount();
+
+    //Tags with the most posts (ties in alphabetical order), uses tag_post_count_name_idx
+    @Query("select t.name as name, t.postCount as postCount from Tag t order by t.postCount desc, t.name")
+    List<NameCountView> findPopular(Pageable pageable);
+
+    //Adds delta to post counts of the tags with given names. It is one atomic update in the database, so two
+    //transactions which change the count at the same time can not lose each other's change
+    @Modifying
+    @Query(value = "update tags set post_count = post_count + :delta where name in (:names)", nativeQuery = true)
+    int addToPostCount(Collection<String> names, long delta);
 }
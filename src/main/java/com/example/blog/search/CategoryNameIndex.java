@@ -0,0 +1,20 @@
+package com.example.blog.search;
+
+import com.example.blog.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+//Names of all categories with their post counts, used for autocomplete (kept up to date by CategoryService and PostService)
+@Component
+@RequiredArgsConstructor
+public class CategoryNameIndex extends NameIndex {
+
+    private final CategoryRepository categoryRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        load(categoryRepository.findAllWithPostCount());
+    }
+}
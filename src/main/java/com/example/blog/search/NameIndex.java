@@ -0,0 +1,101 @@
+package com.example.blog.search;
+
+import com.example.blog.dto.NameCountResponse;
+import com.example.blog.projection.NameCountView;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//In memory index of names (of categories or tags) and number of posts that have them, used for autocomplete,
+//so typing never goes to the database. Names are kept sorted (ignoring case) in a skip list, so finding names
+//which start with the prefix is just a scan of a range of the map, O(log n + number of returned names).
+//It is loaded from the database on start (see TagNameIndex and CategoryNameIndex) and after that services
+//update it on every change of the names, or of the categories/tags of the posts
+public abstract class NameIndex {
+
+    //Lowercase name is followed by the name itself, so names which differ only in case ("Food" and "food")
+    //are kept apart, and every key starts with lowercase name, so prefix search ignores case
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, Entry> names = new ConcurrentSkipListMap<>();
+
+    //Names which start with the prefix (ignoring case), in alphabetical order
+    public List<NameCountResponse> findByPrefix(String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        List<NameCountResponse> result = new ArrayList<>(limit);
+        for (Entry entry : names.subMap(from, from + Character.MAX_VALUE).values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(new NameCountResponse(entry.name(), entry.postCount().get()));
+        }
+        return result;
+    }
+
+    public void load(List<NameCountView> nameCounts) {
+        names.clear();
+        nameCounts.forEach(nameCount ->
+                names.put(key(nameCount.getName()), new Entry(nameCount.getName(), new AtomicLong(nameCount.getPostCount())))
+        );
+    }
+
+    //Every change is applied only after the transaction commits, so changes which are rolled back
+    //never end up in the index
+    public void add(String name) {
+        afterCommit(() -> names.putIfAbsent(key(name), new Entry(name, new AtomicLong())));
+    }
+
+    public void rename(String oldName, String newName) {
+        afterCommit(() -> {
+            Entry entry = names.remove(key(oldName));
+            names.put(key(newName), new Entry(newName, entry != null ? entry.postCount() : new AtomicLong()));
+        });
+    }
+
+    public void remove(String name) {
+        afterCommit(() -> names.remove(key(name)));
+    }
+
+    //Called when names are added to a post (names which are not in the index yet are added)
+    public void addPost(Collection<String> postNames) {
+        afterCommit(() -> postNames.forEach(name ->
+                names.computeIfAbsent(key(name), key -> new Entry(name, new AtomicLong())).postCount().incrementAndGet()
+        ));
+    }
+
+    //Called when names are removed from a post (or the post is deleted)
+    public void removePost(Collection<String> postNames) {
+        afterCommit(() -> postNames.forEach(name -> {
+            Entry entry = names.get(key(name));
+            if (entry != null) {
+                entry.postCount().updateAndGet(count -> Math.max(0, count - 1));
+            }
+        }));
+    }
+
+    private String key(String name) {
+        return name.toLowerCase(Locale.ROOT) + KEY_SEPARATOR + name;
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Entry(String name, AtomicLong postCount) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.blog.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Everything we keep about the post in PostSearchIndex, so search results can be returned
+//straight from the index without going to the database
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostDocument {
+    private Long id;
+    private String title;
+    private String content;
+    private List<String> categories;
+    private List<String> tags;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,169 @@
+package com.example.blog.search;
+
+import com.example.blog.dto.PostSearchResponse;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.BreakIterator;
+import java.time.LocalDateTime;
+import java.util.*;
+
+//Embedded Lucene index of posts used for full text search over their titles and content.
+//Index lives in memory by default (so tests and local runs do not need anything else), or
+//on disk if "blog.search.index-path" is set. It is kept up to date by PostIndexer
+@Component
+public class PostSearchIndex {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String CONTENT = "content";
+    private static final String CATEGORY = "category";
+    private static final String TAG = "tag";
+    private static final String CREATED_AT = "createdAt";
+    private static final String UPDATED_AT = "updatedAt";
+
+    //Words found in the title are worth twice as much as the ones found in the content
+    private static final Map<String, Float> SEARCHED_FIELDS = Map.of(TITLE, 2f, CONTENT, 1f);
+
+    //Approximate length of the snippet, and how many parts of the content it is made of
+    private static final int SNIPPET_LENGTH = 160;
+    private static final int SNIPPET_PASSAGES = 2;
+
+    //Content is indexed with offsets of every word, so snippets are made without analyzing
+    //the content of every found post again
+    private static final FieldType CONTENT_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        CONTENT_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_TYPE.freeze();
+    }
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public PostSearchIndex(@Value("${blog.search.index-path:}") String indexPath) throws IOException {
+        directory = indexPath.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexPath));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        //Searchers see changes of the writer as soon as they are refreshed, without waiting for the commit
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    public boolean isEmpty() {
+        return writer.getDocStats().numDocs == 0;
+    }
+
+    //Posts are replaced (or added if they are not in the index yet) by their id
+    public void update(Collection<PostDocument> posts, Collection<Long> deletedPostIds) {
+        try {
+            for (PostDocument post : posts) {
+                writer.updateDocument(new Term(ID, post.getId().toString()), toDocument(post));
+            }
+            for (Long postId : deletedPostIds) {
+                writer.deleteDocuments(new Term(ID, postId.toString()));
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Returns posts (best match first) from offset to offset + limit, which match the query and
+    //have given category and tag (if they are not null)
+    public List<PostSearchResponse> search(String query, String category, String tag, int offset, int limit) {
+        var builder = new BooleanQuery.Builder()
+                .add(new SimpleQueryParser(analyzer, SEARCHED_FIELDS).parse(query), BooleanClause.Occur.MUST);
+        if (category != null) {
+            builder.add(new TermQuery(new Term(CATEGORY, category)), BooleanClause.Occur.FILTER);
+        }
+        if (tag != null) {
+            builder.add(new TermQuery(new Term(TAG, tag)), BooleanClause.Occur.FILTER);
+        }
+        Query luceneQuery = builder.build();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(luceneQuery, offset + limit);
+                ScoreDoc[] hits = Arrays.copyOfRange(
+                        topDocs.scoreDocs, Math.min(offset, topDocs.scoreDocs.length), topDocs.scoreDocs.length
+                );
+                String[] snippets = getHighlighter(searcher).highlight(
+                        CONTENT, luceneQuery, new TopDocs(topDocs.totalHits, hits), SNIPPET_PASSAGES
+                );
+
+                List<PostSearchResponse> responses = new ArrayList<>(hits.length);
+                for (int i = 0; i < hits.length; i++) {
+                    responses.add(toResponse(searcher.doc(hits[i].doc), snippets[i]));
+                }
+                return responses;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private UnifiedHighlighter getHighlighter(IndexSearcher searcher) {
+        return UnifiedHighlighter.builder(searcher, analyzer)
+                //Content is escaped, so the only html in the snippet are <b> tags we added
+                .withFormatter(new DefaultPassageFormatter("<b>", "</b>", "... ", true))
+                .withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(
+                        BreakIterator.getSentenceInstance(Locale.ROOT), SNIPPET_LENGTH, 0.5f
+                ))
+                .build();
+    }
+
+    private Document toDocument(PostDocument post) {
+        var document = new Document();
+        document.add(new StringField(ID, post.getId().toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, post.getTitle(), Field.Store.YES));
+        document.add(new Field(CONTENT, post.getContent(), CONTENT_TYPE));
+        //Categories and tags are not analyzed, they are matched only by their exact name
+        post.getCategories().forEach(category -> document.add(new StringField(CATEGORY, category, Field.Store.YES)));
+        post.getTags().forEach(tag -> document.add(new StringField(TAG, tag, Field.Store.YES)));
+        document.add(new StoredField(CREATED_AT, post.getCreatedAt().toString()));
+        document.add(new StoredField(UPDATED_AT, post.getUpdatedAt().toString()));
+        return document;
+    }
+
+    private PostSearchResponse toResponse(Document document, String snippet) {
+        return PostSearchResponse.builder()
+                .title(document.get(TITLE))
+                .snippet(snippet)
+                .categories(Arrays.asList(document.getValues(CATEGORY)))
+                .tags(Arrays.asList(document.getValues(TAG)))
+                .createdAt(LocalDateTime.parse(document.get(CREATED_AT)))
+                .updatedAt(LocalDateTime.parse(document.get(UPDATED_AT)))
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.blog.search;
+
+import com.example.blog.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+//Names of all tags with their post counts, used for autocomplete (kept up to date by TagService and PostService)
+@Component
+@RequiredArgsConstructor
+public class TagNameIndex extends NameIndex {
+
+    private final TagRepository tagRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        load(tagRepository.findAllWithPostCount());
+    }
+}
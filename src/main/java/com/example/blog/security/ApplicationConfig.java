@@ -1,7 +1,10 @@
 package com.example.blog.security;
 
 import com.example.blog.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,12 +20,29 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
+    public static final String USERS_CACHE = "users";
+
     private final UserRepository repository;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
 
+    //Users are loaded on every authenticated request, so they are cached (for a short time) as UserPrincipal
+    //snapshots, UserCacheListener evicts them when they change
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return username -> {
+            Cache users = cacheManager.getCache(USERS_CACHE);
+            UserPrincipal principal = users != null ? users.get(username, UserPrincipal.class) : null;
+            if (principal == null) {
+                principal = repository.findByEmail(username)
+                        .map(UserPrincipal::of)
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+                if (users != null) {
+                    users.put(username, principal);
+                }
+            }
+            return principal.toUser();
+        };
     }
 
     @Bean
@@ -40,7 +60,7 @@ public class ApplicationConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 }
 
@@ -1,11 +1,13 @@
 package com.example.blog.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -16,11 +18,24 @@ import java.util.Map;
 import java.util.function.Function;
 
 @Service
-@RequiredArgsConstructor
 public class JwtService {
 
     private final static String SECRET_KEY = "66556A586E3272357538782F413F4428472B4B6250655367566B597033733676";
 
+    //Key and parser never change, so they are built only once instead of on every call
+    private final Key signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+    private final JwtParser jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    //Time spent signing new tokens and checking signatures of received ones, it can be seen
+    //under /actuator/metrics/blog.jwt (tag "operation")
+    private final Timer signTimer;
+    private final Timer verifyTimer;
+
+    public JwtService(MeterRegistry meterRegistry) {
+        this.signTimer = meterRegistry.timer("blog.jwt", "operation", "sign");
+        this.verifyTimer = meterRegistry.timer("blog.jwt", "operation", "verify");
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -38,41 +53,34 @@ public class JwtService {
             Map<String, Object> extraClaims,
             UserDetails userDetails
     ) {
-        return Jwts
+        return signTimer.record(() -> Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact());
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    //Same as above, for claims which were already extracted (JwtAuthenticationFilter), so the token
+    //is not parsed (and its signature checked) once more
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    //Parses the token and checks its signature, every call does it again, so callers which need
+    //more than one claim should call this once and keep the claims
+    public Claims extractAllClaims(String token) {
+        return verifyTimer.record(() -> jwtParser.parseClaimsJws(token).getBody());
     }
 
 }
@@ -0,0 +1,59 @@
+package com.example.blog.security;
+
+import com.example.blog.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+//Limits login attempts per account and per ip, so credential stuffing can not keep our CPU busy with
+//BCrypt (every attempt verifies the password). Every attempt counts, not only failed ones, since we have to
+//decide before the password is checked, but successful login resets the limit of the account.
+//Rejected attempts can be seen under /actuator/metrics/blog.login.rejected (tag "limit" is account or ip)
+@Component
+public class LoginRateLimiter {
+
+    //Biggest number of accounts/ips we keep counts for
+    private static final long MAX_KEYS = 100_000;
+
+    private final SlidingWindowRateLimiter accounts;
+    private final SlidingWindowRateLimiter ips;
+    private final Counter rejectedByAccount;
+    private final Counter rejectedByIp;
+
+    public LoginRateLimiter(
+            @Value("${blog.login.max-attempts-per-account}") int maxAttemptsPerAccount,
+            @Value("${blog.login.max-attempts-per-ip}") int maxAttemptsPerIp,
+            @Value("${blog.login.window}") Duration window,
+            MeterRegistry meterRegistry
+    ) {
+        this.accounts = new SlidingWindowRateLimiter(maxAttemptsPerAccount, window, MAX_KEYS, System::nanoTime);
+        this.ips = new SlidingWindowRateLimiter(maxAttemptsPerIp, window, MAX_KEYS, System::nanoTime);
+        this.rejectedByAccount = meterRegistry.counter("blog.login.rejected", "limit", "account");
+        this.rejectedByIp = meterRegistry.counter("blog.login.rejected", "limit", "ip");
+    }
+
+    public void checkAttempt(String email, String ip) {
+        //Ip is checked first, so attempts which are rejected because of the ip are not counted for the account
+        if (!ips.tryAcquire(ip)) {
+            rejectedByIp.increment();
+            throw new TooManyLoginAttemptsException("Too many login attempts, please try again later!");
+        }
+        if (!accounts.tryAcquire(accountKey(email))) {
+            rejectedByAccount.increment();
+            throw new TooManyLoginAttemptsException("Too many login attempts, please try again later!");
+        }
+    }
+
+    public void loginSucceeded(String email) {
+        accounts.reset(accountKey(email));
+    }
+
+    //Emails are not case-sensitive, so "John@..." and "john@..." share the limit
+    private String accountKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.blog.security;
+
+import com.example.blog.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Hashes passwords of new users on its own small pool of threads, so a burst of registrations can use at most
+//that many cores for BCrypt (and request threads are free to serve other requests in the meantime).
+//Waiting hashes are kept in a bounded queue, and when it is full we refuse to register the user
+//(ServiceBusyException) instead of letting the queue, and the time users wait, grow without limit
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            @Value("${blog.password-hasher.threads}") int threads,
+            @Value("${blog.password-hasher.queue-size}") int queueSize
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Server is busy, please try again later!");
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+}
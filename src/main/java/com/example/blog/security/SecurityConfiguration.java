@@ -1,5 +1,6 @@
 package com.example.blog.security;
 
+import com.example.blog.entity.Role;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,15 +30,24 @@ public class SecurityConfiguration {
                         "/api/v1/posts/all",
                         "/api/v1/posts/all-by-category",
                         "/api/v1/posts/all-by-tag",
+                        "/api/v1/posts/search",
                         "/api/v1/posts/{postTitle}",
                         "/api/v1/posts/categories/search",
                         "/api/v1/posts/categories/all",
+                        "/api/v1/posts/categories/autocomplete",
+                        "/api/v1/posts/categories/popular",
                         "/api/v1/posts/tags/search",
                         "/api/v1/posts/tags/all",
+                        "/api/v1/posts/tags/autocomplete",
+                        "/api/v1/posts/tags/popular",
                         "/api/v1/posts/{postTitle}/comments/{commentId}",
                         "/api/v1/posts/{postTitle}/comments/all"
                 )
                 .permitAll()
+                //Metrics show internals of the application (endpoints, pool, cache, failed logins),
+                //so Prometheus has to scrape them with the token of an admin
+                .requestMatchers("/actuator/prometheus")
+                .hasAuthority(Role.ADMIN.name())
                 .anyRequest()
                 .authenticated()
                 .and()
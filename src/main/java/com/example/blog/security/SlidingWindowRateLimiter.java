@@ -0,0 +1,78 @@
+package com.example.blog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+//Sliding window rate limiter, allows at most "limit" attempts per key (email, ip...) in the last window.
+//Instead of remembering the time of every attempt, the number of attempts in the sliding window is estimated
+//from the counts of the current and the previous fixed window (the previous one is weighted by the part of it
+//which is still inside the sliding window), so every key needs just two numbers.
+//Counts of the key are changed with compare-and-set (no locks), and keys are kept in a Caffeine cache, which is
+//striped internally, so concurrent attempts for different keys do not contend, keys which are not used expire
+//and the number of keys is bounded (anybody can try to log in with any email)
+public class SlidingWindowRateLimiter {
+
+    private final int limit;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicReference<Counts>> counts;
+
+    public SlidingWindowRateLimiter(int limit, Duration window, long maxKeys, LongSupplier nanoClock) {
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                //After two windows both counts of the key would be zero anyway
+                .expireAfterAccess(window.multipliedBy(2))
+                .ticker(nanoClock::getAsLong)
+                .build();
+    }
+
+    //Counts the attempt and returns true if it is allowed. Rejected attempts are not counted,
+    //so the key can try again as soon as older attempts slide out of the window
+    public boolean tryAcquire(String key) {
+        AtomicReference<Counts> state = counts.get(key, k -> new AtomicReference<>(new Counts(0, 0, 0)));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            Counts current = state.get();
+            Counts rolled = current.rollTo(now, windowNanos);
+            if (rolled.estimate(now, windowNanos) >= limit) {
+                return false;
+            }
+            if (state.compareAndSet(current, rolled.increment())) {
+                return true;
+            }
+        }
+    }
+
+    public void reset(String key) {
+        counts.invalidate(key);
+    }
+
+    private record Counts(long windowStart, int previous, int current) {
+
+        //Moves the counts to the fixed window which contains "now"
+        Counts rollTo(long now, long windowNanos) {
+            long start = now - Math.floorMod(now, windowNanos);
+            if (start == windowStart) {
+                return this;
+            }
+            //If more than one window has passed, even the previous window had no attempts
+            return new Counts(start, start - windowStart == windowNanos ? current : 0, 0);
+        }
+
+        double estimate(long now, long windowNanos) {
+            double previousWeight = (double) (windowNanos - (now - windowStart)) / windowNanos;
+            return previous * previousWeight + current;
+        }
+
+        Counts increment() {
+            return new Counts(windowStart, previous, current + 1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.blog.security;
+
+import com.example.blog.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//Evicts user from the "users" cache whenever he is changed or deleted, so the next request loads him again.
+//Just like with posts, he is evicted once more after commit, so request which loaded him before
+//the commit can not put the old version back.
+//(CacheManager is optional here, since repository tests run without caching)
+@Component
+@RequiredArgsConstructor
+public class UserCacheListener {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        String email = user.getEmail();
+        evictNow(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(email);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String email) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager != null ? manager.getCache(ApplicationConfig.USERS_CACHE) : null;
+        if (cache != null) {
+            cache.evict(email);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.blog.security;
+
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import lombok.Value;
+
+//Immutable snapshot of the user (without his posts and comments) which is kept in the "users" cache,
+//so JwtAuthenticationFilter does not have to query the database on every request.
+//Every request gets its own (detached) User made from it, so nobody can change the cached one
+@Value
+public class UserPrincipal {
+
+    Long id;
+    String firstName;
+    String lastName;
+    String email;
+    String password;
+    Role role;
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getRole()
+        );
+    }
+
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .password(password)
+                .role(role)
+                .build();
+    }
+}
@@ -1,30 +1,41 @@
 package com.example.blog.service;
 
 import com.example.blog.dto.CategoryDto;
+import com.example.blog.dto.NameCountResponse;
 import com.example.blog.entity.Category;
 import com.example.blog.entity.PostCategory;
 import com.example.blog.entity.PostCategoryId;
+import com.example.blog.entity.User;
 import com.example.blog.exception.*;
 import com.example.blog.repository.CategoryRepository;
 import com.example.blog.repository.PostCategoryRepository;
 import com.example.blog.repository.PostRepository;
-import com.example.blog.repository.UserRepository;
-import com.example.blog.security.JwtService;
+import com.example.blog.search.CategoryNameIndex;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
 
+    //Biggest number of names autocomplete can return
+    private static final int MAX_AUTOCOMPLETE_SIZE = 50;
+
+    //Biggest number of categories popular categories can return
+    private static final int MAX_POPULAR_SIZE = 50;
+
     private final CategoryRepository categoryRepository;
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
-    private final JwtService jwtService;
     private final PostCategoryRepository postCategoryRepository;
+    private final PostCache postCache;
+    private final PostIndexer postIndexer;
+    private final CategoryNameIndex categoryNameIndex;
 
 
     //Most of these methods are simple methods for CRUD operations so there is no need
@@ -37,6 +48,7 @@ public class CategoryService {
 
         var category = Category.builder().name(request.getName()).build();
         categoryRepository.save(category);
+        categoryNameIndex.add(category.getName());
 
         return new CategoryDto(request.getName());
     }
@@ -54,29 +66,51 @@ public class CategoryService {
         return categories.stream().map(category -> new CategoryDto(category.getName())).toList();
     }
 
+    //Categories whose names start with the prefix (ignoring case) with their post counts, in alphabetical order.
+    //Answered from CategoryNameIndex, so it never goes to the database (it is called on every keystroke)
+    public List<NameCountResponse> autocompleteCategories(String prefix, int size) {
+        return categoryNameIndex.findByPrefix(prefix, Math.max(1, Math.min(size, MAX_AUTOCOMPLETE_SIZE)));
+    }
+
+    //Categories with the most posts, read from their post counts (see incrementPostCounts)
+    public List<NameCountResponse> getPopularCategories(int size) {
+        return categoryRepository.findPopular(PageRequest.of(0, Math.max(1, Math.min(size, MAX_POPULAR_SIZE)))).stream()
+                .map(nameCount -> new NameCountResponse(nameCount.getName(), nameCount.getPostCount()))
+                .toList();
+    }
+
     @Transactional
     public String updateCategory(String categoryName, CategoryDto request) {
-        if (!categoryRepository.existsByName(categoryName)) {
-            throw new CategoryNotFoundException("Category '" + categoryName + "' not found!");
-        }
+        var category = categoryRepository.findByName(categoryName)
+                .orElseThrow(() -> new CategoryNotFoundException("Category '" + categoryName + "' not found!"));
         if (categoryRepository.existsByName(request.getName())) {
             throw new CategoryAlreadyExistsException("Category '" + request.getName() + "' already exists!");
         }
 
-        var category = categoryRepository.findByName(categoryName);
+        //Every post with this category will show it under the new name, so we evict them and reindex them
+        //(we have to find them before renaming since we are finding them by the old name)
+        postCache.evictByCategory(category.getId());
+        postIndexer.reindex(postCategoryRepository.findPostIdsByCategoryName(categoryName));
+
         category.setName(request.getName());
         categoryRepository.save(category);
+        categoryNameIndex.rename(categoryName, request.getName());
 
         return "Category '" + categoryName + "' changed/updated to '" + request.getName() + "'";
     }
 
     @Transactional
     public String deleteCategory(String categoryName) {
-        if (!categoryRepository.existsByName(categoryName)) {
-            throw new CategoryNotFoundException("Category '" + categoryName + "' not found!");
-        }
+        var category = categoryRepository.findByName(categoryName)
+                .orElseThrow(() -> new CategoryNotFoundException("Category '" + categoryName + "' not found!"));
 
-        categoryRepository.deleteByName(categoryName);
+        postCache.evictByCategory(category.getId());
+        postIndexer.reindex(postCategoryRepository.findPostIdsByCategoryName(categoryName));
+        //Bridge rows are deleted with one statement and then the category itself (also without cascading through its
+        //postCategorys), so deleting a category of many posts does not load and delete every bridge row on its own
+        postCategoryRepository.deleteAllByCategoryId(category.getId());
+        categoryRepository.deleteAllByIdInBatch(List.of(category.getId()));
+        categoryNameIndex.remove(categoryName);
 
         return "Category '" + categoryName + "' deleted!";
     }
@@ -84,25 +118,14 @@ public class CategoryService {
     //Unlike previous methods here we need to use bridge table which makes this method
     //look somewhat more complicated (which it isn't)
     @Transactional
-    public String addCategoryToPost(String postTitle, CategoryDto request, String bearerToken) {
+    public String addCategoryToPost(String postTitle, CategoryDto request, User user) {
         //Unlike previous methods here we are editing posts and only users that created that post
-        //can edit it, that is why we are fetching user by getting token from header and
-        //extracting username (email in our case) from it and using it to get user
-        //(we do not need to check if user exists in our db since if he does not exist
-        //the token will fail)
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
-
-        if (!postRepository.existsByTitleAndUser(postTitle, user)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
-        if (!categoryRepository.existsByName(request.getName())) {
-            throw new CategoryNotFoundException("Category '" + request.getName() + "' not found!");
-        }
-
-        //After we did the check we get post and category
-        var post = postRepository.findByTitleAndUser(postTitle, user);
-        var category = categoryRepository.findByName(request.getName());
+        //can edit it, that is why we get the user who sent the request (JwtAuthenticationFilter already
+        //loaded him from the token, so controller just passes him here)
+        var post = postRepository.findByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
+        var category = categoryRepository.findByName(request.getName())
+                .orElseThrow(() -> new CategoryNotFoundException("Category '" + request.getName() + "' not found!"));
 
         //Which we then use to check if they are connected. If they are not throw exception, else continue
         if (postCategoryRepository.existsByPostAndCategory(post, category)) {
@@ -123,44 +146,121 @@ public class CategoryService {
         postCategories.add(postCategoryToAdd);
         post.setPostCategories(postCategories);
         postRepository.save(post);
+        postCache.evict(post.getId(), postTitle);
+        postIndexer.reindex(post.getId());
+
+        incrementPostCounts(List.of(category.getName()));
 
         return request.getName() + " category added to the post '" + postTitle + "'";
     }
 
-    //This one is very similar to the method before it, with just couple of changes
+    //Same as addCategoryToPost, but for the whole list at once: categories are found with one query,
+    //post is loaded once and everything happens in one transaction, so either all categories
+    //are added to the post or none of them is
     @Transactional
-    public String deleteCategoryFromPost(String postTitle, CategoryDto request, String bearerToken) {
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
+    public String addCategoriesToPost(String postTitle, List<CategoryDto> request, User user) {
+        var post = postRepository.findByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
 
-        if (!postRepository.existsByTitleAndUser(postTitle, user)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
-        if (!categoryRepository.existsByName(request.getName())) {
-            throw new CategoryNotFoundException("Category '" + request.getName() + "' not found!");
-        }
+        var categories = findCategories(request.stream().map(CategoryDto::getName).toList());
 
-        var post = postRepository.findByTitleAndUser(postTitle, user);
-        var category = categoryRepository.findByName(request.getName());
+        //Ids of categories the post already has, so we do not have to ask the db for every category
+        var postCategories = post.getPostCategories();
+        Set<Long> postCategoryIds = postCategories.stream()
+                .map(postCategory -> postCategory.getPostCategoryId().getCategoryId())
+                .collect(Collectors.toSet());
 
-        //Unlike before, here we check if connection does not exist (because we need it to exist
-        //to be able to remove/delete it), if it does not exist throw exception
-        if (!postCategoryRepository.existsByPostAndCategory(post, category)) {
-            throw new PostDoesNotContainThatCategoryException(
-                    "Post '" + postTitle + "' does not contain category '" + request.getName() + "'"
-            );
+        for (Category category : categories) {
+            if (postCategoryIds.contains(category.getId())) {
+                throw new PostAlreadyContainsThatCategoryException(
+                        "Post '" + postTitle + "' already contains category '" + category.getName() + "'"
+                );
+            }
+            postCategories.add(PostCategory.builder()
+                    .postCategoryId(new PostCategoryId(post.getId(), category.getId()))
+                    .post(post)
+                    .category(category)
+                    .build());
         }
 
+        post.setPostCategories(postCategories);
+        postRepository.save(post);
+        postCache.evict(post.getId(), postTitle);
+        postIndexer.reindex(post.getId());
+
+        incrementPostCounts(categories.stream().map(Category::getName).toList());
+
+        return "All categories added to the post '" + postTitle + "'";
+    }
+
+    //This one is very similar to the method before it, with just couple of changes
+    @Transactional
+    public String deleteCategoryFromPost(String postTitle, CategoryDto request, User user) {
+        var post = postRepository.findByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
+        var category = categoryRepository.findByName(request.getName())
+                .orElseThrow(() -> new CategoryNotFoundException("Category '" + request.getName() + "' not found!"));
+
+        //Unlike before, here we need the connection to exist (to be able to remove/delete it),
+        //if it does not exist throw exception
+        var postCategoryToRemove = postCategoryRepository.findByPostAndCategory(post, category)
+                .orElseThrow(() -> new PostDoesNotContainThatCategoryException(
+                        "Post '" + postTitle + "' does not contain category '" + request.getName() + "'"
+                ));
+
         //Then just like before we get our PostCategory from our post, however unlike before we do not
         //add the new connection to our bridge table but rather remove the category from our post (PostCategory)
         //and then save that updated post again to our db
         var postCategories = post.getPostCategories();
-        var postCategoryToRemove = postCategoryRepository.findByPostAndCategory(post, category);
 
         postCategories.remove(postCategoryToRemove);
         post.setPostCategories(postCategories);
         postRepository.save(post);
+        postCache.evict(post.getId(), postTitle);
+        postIndexer.reindex(post.getId());
+
+        decrementPostCounts(List.of(category.getName()));
 
         return request.getName() + " category removed from the post '" + postTitle + "'";
     }
+
+    //Returns categories with given names (in the same order, without duplicates) fetched with
+    //one "where name in (...)" query instead of one query per name. Unlike tags, categories
+    //are not created here, so if any of them does not exist we throw exception
+    public List<Category> findCategories(Collection<String> names) {
+        Set<String> uniqueNames = new LinkedHashSet<>(names);
+        if (uniqueNames.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Category> categoriesByName = categoryRepository.findAllByNameIn(uniqueNames).stream()
+                .collect(Collectors.toMap(Category::getName, Function.identity()));
+
+        for (String name : uniqueNames) {
+            if (!categoriesByName.containsKey(name)) {
+                throw new CategoryNotFoundException("Category by the name " + name + " not found!");
+            }
+        }
+
+        return uniqueNames.stream().map(categoriesByName::get).toList();
+    }
+
+    //Post counts of the categories are changed in the same transaction which adds them to the post (or removes them),
+    //with one update of all of them, and CategoryNameIndex gets the change after it commits.
+    //Called from here and from PostService (creating and deleting posts)
+    public void incrementPostCounts(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        categoryRepository.addToPostCount(names, 1);
+        categoryNameIndex.addPost(names);
+    }
+
+    public void decrementPostCounts(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        categoryRepository.addToPostCount(names, -1);
+        categoryNameIndex.removePost(names);
+    }
 }
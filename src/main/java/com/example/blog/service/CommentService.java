@@ -2,15 +2,19 @@ package com.example.blog.service;
 
 import com.example.blog.dto.CommentRequest;
 import com.example.blog.dto.CommentResponse;
+import com.example.blog.dto.PageResponse;
 import com.example.blog.entity.Comment;
+import com.example.blog.entity.Post;
+import com.example.blog.entity.User;
 import com.example.blog.exception.CommentNotFoundException;
 import com.example.blog.exception.PostNotFoundException;
+import com.example.blog.projection.CommentVersionView;
+import com.example.blog.projection.CommentView;
 import com.example.blog.repository.CommentRepository;
 import com.example.blog.repository.PostRepository;
-import com.example.blog.repository.UserRepository;
-import com.example.blog.security.JwtService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,21 +24,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CommentService {
 
+    //Biggest page size user can ask for, same as for posts
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
-    private final JwtService jwtService;
 
     //Methods are not complicated, I think, so no need for comments for most part
-    public CommentResponse createComment(String postTitle, CommentRequest request, String bearerToken) {
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
-
-        if (!postRepository.existsByTitle(postTitle)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
-
-        var post = postRepository.findByTitle(postTitle);
+    public CommentResponse createComment(String postTitle, CommentRequest request, User user) {
+        var post = getPost(postTitle);
         var comment = Comment.builder()
                 .content(request.getContent())
                 .createdAt(LocalDateTime.now())
@@ -45,7 +43,7 @@ public class CommentService {
         commentRepository.save(comment);
 
         return CommentResponse.builder()
-                .userName(username)
+                .userName(user.getEmail())
                 .content(request.getContent())
                 .createdAt(comment.getCreatedAt())
                 .updatedAt(comment.getUpdatedAt())
@@ -53,15 +51,10 @@ public class CommentService {
     }
 
     public CommentResponse getComment(String postTitle, Long commentId) {
-        if (!postRepository.existsByTitle(postTitle)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
-        var post = postRepository.findByTitle(postTitle);
+        var post = getPost(postTitle);
 
-        if (!commentRepository.existsByIdAndPost(commentId, post)) {
-            throw new CommentNotFoundException("Comment not found!");
-        }
-        var comment = commentRepository.findByIdAndPost(commentId, post);
+        var comment = commentRepository.findByIdAndPost(commentId, post)
+                .orElseThrow(() -> new CommentNotFoundException("Comment not found!"));
 
         return CommentResponse.builder()
                 .userName(comment.getUser().getEmail())
@@ -71,39 +64,56 @@ public class CommentService {
                 .build();
     }
 
-    public List<CommentResponse> getAllComments(String postTitle) {
-        if (!postRepository.existsByTitle(postTitle)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
+    //Comments are returned page by page, newest first, the same way posts are (see PostService.getPage)
+    public PageResponse<CommentResponse> getAllComments(String postTitle, String cursor, int size) {
+        var postId = getPostId(postTitle);
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<CommentView> comments = commentRepository.findPageByPostId(
+                postId, pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
+
+        boolean hasNext = comments.size() > pageSize;
+        List<CommentView> page = hasNext ? comments.subList(0, pageSize) : comments;
+        String next = null;
+        if (hasNext) {
+            var last = page.get(page.size() - 1);
+            next = new PageCursor(last.getCreatedAt(), last.getId()).encode();
         }
 
-        var post = postRepository.findByTitle(postTitle);
-        var comments = commentRepository.findAllByPost(post);
+        return PageResponse.<CommentResponse>builder()
+                .content(page.stream().map(comment -> CommentResponse.builder()
+                        .userName(comment.getUserName())
+                        .content(comment.getContent())
+                        .createdAt(comment.getCreatedAt())
+                        .updatedAt(comment.getUpdatedAt())
+                        .build()).toList())
+                .next(next)
+                .build();
+    }
 
-        return comments.stream().map(comment -> CommentResponse.builder()
-                .userName(comment.getUser().getEmail())
-                .content(comment.getContent())
-                .createdAt(comment.getCreatedAt())
-                .updatedAt(comment.getUpdatedAt())
-                .build()).toList();
+    //Version of the page returned by getAllComments. Comments change only through update (which sets their
+    //updated at) and delete (which removes them from the page), so their ids and update times are enough
+    public ContentVersion getAllCommentsVersion(String postTitle, String cursor, int size) {
+        var postId = getPostId(postTitle);
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<CommentVersionView> comments = commentRepository.findVersionPageByPostId(
+                postId, pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
+
+        return ContentVersion.ofPage("comments", comments, pageSize, comment -> comment.getId() + "-" + comment.getUpdatedAt());
     }
 
     @Transactional
-    public CommentResponse updateComment(String postTitle, Long commentId, CommentRequest request, String bearerToken) {
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
-
-        if (!postRepository.existsByTitle(postTitle)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
-        var post = postRepository.findByTitle(postTitle);
+    public CommentResponse updateComment(String postTitle, Long commentId, CommentRequest request, User user) {
+        var post = getPost(postTitle);
 
         //I think only this code kinda needs an explanation.
         //We are checking if comment exists on post with provided title, by id provided
         //that was made by the user trying to edit it now
-        if (!commentRepository.existsByIdAndPostAndUser(commentId, post, user)) {
-            throw new CommentNotFoundException("Comment not found");
-        }
-        var comment = commentRepository.findByIdAndPostAndUser(commentId, post, user);
+        var comment = commentRepository.findByIdAndPostAndUser(commentId, post, user)
+                .orElseThrow(() -> new CommentNotFoundException("Comment not found"));
 
         comment.setContent(request.getContent());
         comment.setUpdatedAt(LocalDateTime.now());
@@ -118,23 +128,32 @@ public class CommentService {
     }
 
     @Transactional
-    public String deleteComment(String postTitle, Long commentId, String bearerToken) {
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
-
-        if (!postRepository.existsByTitle(postTitle)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
-        var post = postRepository.findByTitle(postTitle);
+    public String deleteComment(String postTitle, Long commentId, User user) {
+        var post = getPost(postTitle);
 
         //We are checking if comment exists on post with provided title, by id provided
         //that was made by the user trying to delete it now
-        if (!commentRepository.existsByIdAndPostAndUser(commentId, post, user)) {
-            throw new CommentNotFoundException("Comment not found");
-        }
+        var comment = commentRepository.findByIdAndPostAndUser(commentId, post, user)
+                .orElseThrow(() -> new CommentNotFoundException("Comment not found"));
 
-        commentRepository.deleteById(commentId);
+        commentRepository.delete(comment);
 
         return "Comment deleted!";
     }
+
+    private int getPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    //Finds the post (by its title) comments belong to, with one query
+    private Post getPost(String postTitle) {
+        return postRepository.findByTitle(postTitle)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
+    }
+
+    //Same as getPost, but only the id of the post is read (without its content), for the pages of its comments
+    private Long getPostId(String postTitle) {
+        return postRepository.findIdByTitle(postTitle)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
+    }
 }
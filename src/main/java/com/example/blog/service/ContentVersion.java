@@ -0,0 +1,43 @@
+package com.example.blog.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Function;
+
+//Version of the post or of the page of posts/comments, which is sent as ETag (and Last-Modified) of the response.
+//Clients send it back with If-None-Match (If-Modified-Since), and if the content did not change since then
+//they get 304 without the body, so the post/page does not have to be loaded and serialized again
+@Getter
+@AllArgsConstructor
+public class ContentVersion {
+
+    private final String etag;
+    //Null if we can not tell when the content was changed (pages, since deleted rows leave no trace of it)
+    private final LocalDateTime lastModified;
+
+    //-1 means unknown, which is what WebRequest.checkNotModified expects
+    public long getLastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    //Version of the page is the hash of the representation of the page (the same rows can be returned whole or
+    //just as summaries, and each of them needs its own ETag), the versions of its rows (ids are part of them,
+    //so added or removed rows change it too) and whether there is a next page. Rows are fetched the same way
+    //as the page itself, with one row more than the page size (see PostService.getPage)
+    static <T> ContentVersion ofPage(String representation, List<T> rows, int pageSize, Function<T, String> versionOf) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        var value = new StringBuilder(representation).append(':');
+        page.forEach(row -> value.append(versionOf.apply(row)).append(','));
+        value.append(hasNext);
+
+        return new ContentVersion(DigestUtils.md5DigestAsHex(value.toString().getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.blog.service;
+
+import com.example.blog.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+//Position of the last element of the page (its created at and id), which is used to fetch
+//the next page with "where (created_at, id) < (cursor)" instead of offset, so fetching
+//page N costs the same as fetching the first page.
+//For clients, it is just an opaque string
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    //Cursor which is "after" every post, so it is used to fetch the first page
+    public static final PageCursor FIRST_PAGE = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public String encode() {
+        String value = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Null cursor means that user wants the first page
+    public static PageCursor decode(String cursor) {
+        if (cursor == null) {
+            return FIRST_PAGE;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new PageCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Cursor '" + cursor + "' is not valid!");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.blog.service;
+
+import com.example.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+//Cache of posts returned by PostService.getPost (keyed by post title).
+//Everything that changes how the post looks (its title, content, categories or tags)
+//has to evict that post from here, otherwise users would get the old version of the post.
+//Evicting the post also increments its version (see Post.version), so clients that cached it
+//themselves (ETag/Last-Modified) get the new version too
+@Component
+@RequiredArgsConstructor
+public class PostCache {
+
+    public static final String NAME = "posts";
+
+    private final CacheManager cacheManager;
+    private final PostRepository postRepository;
+
+    public void evict(Long postId, String postTitle) {
+        evict(postId, List.of(postTitle));
+    }
+
+    //Version is incremented by id, since other users can have posts with the same title.
+    //Cache is keyed by title, so every title the post had in this transaction is evicted
+    public void evict(Long postId, Collection<String> postTitles) {
+        postRepository.touchById(postId, LocalDateTime.now());
+        evictNowAndAfterCommit(() -> evictNow(postTitles));
+    }
+
+    //Tag/category can have any number of posts, so instead of finding their titles (and evicting them one by one)
+    //their versions are incremented with one statement and the whole cache is cleared
+    public void evictByTag(Long tagId) {
+        postRepository.touchByTagId(tagId, LocalDateTime.now());
+        evictNowAndAfterCommit(this::clearNow);
+    }
+
+    public void evictByCategory(Long categoryId) {
+        postRepository.touchByCategoryId(categoryId, LocalDateTime.now());
+        evictNowAndAfterCommit(this::clearNow);
+    }
+
+    //Deleted post has no version left to increment, so it is only evicted
+    public void evictDeleted(String postTitle) {
+        evictNowAndAfterCommit(() -> evictNow(List.of(postTitle)));
+    }
+
+    //Posts are evicted right away and then once more after the transaction commits, because
+    //request which reads the post before our changes are committed would put the old version back
+    private void evictNowAndAfterCommit(Runnable evict) {
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private void evictNow(Collection<String> postTitles) {
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache != null) {
+            postTitles.forEach(cache::evict);
+        }
+    }
+
+    private void clearNow() {
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.blog.service;
+
+import com.example.blog.entity.Post;
+import com.example.blog.projection.PostNameView;
+import com.example.blog.repository.PostCategoryRepository;
+import com.example.blog.repository.PostRepository;
+import com.example.blog.repository.PostTagRepository;
+import com.example.blog.search.PostDocument;
+import com.example.blog.search.PostSearchIndex;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+//Keeps PostSearchIndex up to date. Everything that changes what can be searched (title, content,
+//categories or tags of the post) or deletes the post has to reindex it here, which are the same
+//places that evict the post from PostCache
+@Component
+@RequiredArgsConstructor
+public class PostIndexer {
+
+    //How many posts are loaded from the database at once when the whole index is built
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    //How many posts are loaded from the database at once when they are reindexed (renaming or deleting
+    //a tag/category reindexes all of its posts, so there can be any number of them)
+    static final int REINDEX_BATCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+    private final PostRepository postRepository;
+    private final PostCategoryRepository postCategoryRepository;
+    private final PostTagRepository postTagRepository;
+    private final PostSearchIndex postSearchIndex;
+
+    public void reindex(Long postId) {
+        reindex(List.of(postId));
+    }
+
+    //Posts are reindexed after the transaction commits, so changes which are rolled back never end up
+    //in the index, and we index what was actually saved. Posts that do not exist anymore are removed
+    public void reindex(Collection<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindexNow(postIds);
+                }
+            });
+        } else {
+            reindexNow(postIds);
+        }
+    }
+
+    //Index is kept in memory by default, so it is empty after every start and has to be built
+    //from the database. Posts are loaded page by page, so we never hold all of them in memory
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!postSearchIndex.isEmpty()) {
+            return;
+        }
+
+        var cursor = PageCursor.FIRST_PAGE;
+        List<Post> posts;
+        do {
+            posts = postRepository.findPage(cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, REBUILD_BATCH_SIZE));
+            if (!posts.isEmpty()) {
+                postSearchIndex.update(getDocuments(posts), List.of());
+                var last = posts.get(posts.size() - 1);
+                cursor = new PageCursor(last.getCreatedAt(), last.getId());
+            }
+        } while (posts.size() == REBUILD_BATCH_SIZE);
+    }
+
+    //Posts are loaded and indexed batch by batch, and the persistence context is cleared between batches
+    //(it is still the one of the committed transaction), so we never hold all of them in memory
+    void reindexNow(Collection<Long> postIds) {
+        List<Long> ids = List.copyOf(postIds);
+        for (int from = 0; from < ids.size(); from += REINDEX_BATCH_SIZE) {
+            if (from > 0) {
+                entityManager.clear();
+            }
+            List<Long> batch = ids.subList(from, Math.min(from + REINDEX_BATCH_SIZE, ids.size()));
+            List<Post> posts = postRepository.findAllById(batch);
+            Set<Long> deletedPostIds = new HashSet<>(batch);
+            posts.forEach(post -> deletedPostIds.remove(post.getId()));
+
+            postSearchIndex.update(getDocuments(posts), deletedPostIds);
+        }
+    }
+
+    //Categories and tags of all posts are fetched with one query each (same as in PostService)
+    private List<PostDocument> getDocuments(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> postIds = posts.stream().map(Post::getId).toList();
+        Map<Long, List<String>> categories = groupNamesByPostId(postCategoryRepository.findNamesByPostIds(postIds));
+        Map<Long, List<String>> tags = groupNamesByPostId(postTagRepository.findNamesByPostIds(postIds));
+
+        return posts.stream()
+                .map(post -> PostDocument.builder()
+                        .id(post.getId())
+                        .title(post.getTitle())
+                        .content(post.getContent())
+                        .categories(categories.getOrDefault(post.getId(), List.of()))
+                        .tags(tags.getOrDefault(post.getId(), List.of()))
+                        .createdAt(post.getCreatedAt())
+                        .updatedAt(post.getUpdatedAt())
+                        .build()).toList();
+    }
+
+    private Map<Long, List<String>> groupNamesByPostId(List<PostNameView> names) {
+        return names.stream().collect(Collectors.groupingBy(
+                PostNameView::getPostId,
+                Collectors.mapping(PostNameView::getName, Collectors.toList())
+        ));
+    }
+}
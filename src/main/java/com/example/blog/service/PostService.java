@@ -1,44 +1,64 @@
 package com.example.blog.service;
 
+import com.example.blog.dto.PageResponse;
 import com.example.blog.dto.PostRequest;
 import com.example.blog.dto.PostResponse;
+import com.example.blog.dto.PostSearchResponse;
+import com.example.blog.dto.PostSummaryResponse;
 import com.example.blog.dto.PostUpdateRequest;
+import com.example.blog.dto.PostView;
 import com.example.blog.entity.*;
 import com.example.blog.exception.CategoryNotFoundException;
+import com.example.blog.exception.InvalidCursorException;
 import com.example.blog.exception.PostNotFoundException;
 import com.example.blog.exception.PostTitleAlreadyExistsException;
 import com.example.blog.exception.TagNotFoundException;
+import com.example.blog.projection.PostNameView;
+import com.example.blog.projection.PostSummaryView;
+import com.example.blog.projection.PostVersionView;
 import com.example.blog.repository.*;
-import com.example.blog.security.JwtService;
+import com.example.blog.search.PostSearchIndex;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
 
+    //Biggest page size user can ask for, anything bigger than this is reduced to it
+    private static final int MAX_PAGE_SIZE = 100;
+    //How deep user can page through search results
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
-    private final JwtService jwtService;
     private final PostCategoryRepository postCategoryRepository;
     private final PostTagRepository postTagRepository;
+    private final CommentRepository commentRepository;
+    private final PostCache postCache;
+    private final PostIndexer postIndexer;
+    private final PostSearchIndex postSearchIndex;
+    private final CategoryService categoryService;
+    private final TagService tagService;
 
     //Quite few things are happening in this method therefore there may be more comments
     //than usual just to explain what is happening (or should I say what I was thinking
-    //when writing the code)
-    public PostResponse createPost(PostRequest request, String bearerToken) {
-        // username is users email in our case
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
-
+    //when writing the code).
+    //Whole post (with its categories and tags) is saved in one transaction, so Hibernate can
+    //send all inserts together in JDBC batches (see hibernate.jdbc settings in application.yml)
+    @Transactional
+    public PostResponse createPost(PostRequest request, User user) {
         if (postRepository.existsByTitleAndUser(request.getTitle(), user)) {
             throw new PostTitleAlreadyExistsException("Post with that title already exists, please use different title");
         }
@@ -56,14 +76,11 @@ public class PostService {
 
         //Since we are using for both categories and tags in our PostRequest dto Set so values are unique
         //(because we do not want to allow users to have duplicate categories/tags on their posts)
-        //we have to add those elements to a List, so we can add it to our post later
+        //we have to add those elements to a List, so we can add it to our post later.
+        //All categories are fetched with one query (CategoryService throws exception if any of them
+        //does not exist), instead of checking and fetching them one by one
         List<PostCategory> postCategories = new ArrayList<>();
-        for (String category : request.getCategories()) {
-            if (!categoryRepository.existsByName(category)) {
-                throw new CategoryNotFoundException("Category by the name " + category + " not found!");
-            }
-
-            var categoryToAdd = categoryRepository.findByName(category);
+        for (Category categoryToAdd : categoryService.findCategories(request.getCategories())) {
             //Since we are using bridge table to connect our posts and categories tables,
             //and therefore we can't directly add categories to our post, we have to build a var of
             //our bridge table
@@ -82,51 +99,43 @@ public class PostService {
         //The same thing we are doing for categories, we are doing for tags as well
         //with one additional thing. Unlike categories, tags are more arbitrary therefore
         //we want to allow users to create their own tags, so even if tag provided by user
-        //does not exist in our database the code will run, because we will simply create
-        //the tag that, user provided, that does not exist and save it to our database
+        //does not exist in our database the code will run, because TagService will simply create
+        //the tags that user provided and that do not exist (all of them in one batch)
         List<PostTag> postTagLIst = new ArrayList<>();
-        for (String tag : request.getTags()) {
-            Optional<Tag> optionalTag = tagRepository.findByName(tag);
-            if (optionalTag.isPresent()) {
-                var postTag = PostTag.builder()
-                        .postTagId(new PostTagId(post.getId(), optionalTag.get().getId()))
-                        .post(post)
-                        .tag(optionalTag.get())
-                        .build();
-                postTagLIst.add(postTag);
-            } else {
-                Tag newTag = new Tag();
-                newTag.setName(tag);
-                var postTag = PostTag.builder()
-                        .postTagId(new PostTagId(post.getId(), newTag.getId()))
-                        .post(post)
-                        .tag(tagRepository.save(newTag))
-                        .build();
-                postTagLIst.add(postTag);
-            }
+        for (Tag tag : tagService.findOrCreateTags(request.getTags())) {
+            var postTag = PostTag.builder()
+                    .postTagId(new PostTagId(post.getId(), tag.getId()))
+                    .post(post)
+                    .tag(tag)
+                    .build();
+            postTagLIst.add(postTag);
         }
         post.setPostTags(postTagLIst);
         postRepository.save(post);
+        postIndexer.reindex(post.getId());
+        categoryService.incrementPostCounts(postCategories.stream().map(postCategory -> postCategory.getCategory().getName()).toList());
+        tagService.incrementPostCounts(postTagLIst.stream().map(postTag -> postTag.getTag().getName()).toList());
 
+        //We already have categories and tags of the post, so there is no need to fetch them again
         return PostResponse.builder()
                 .title(post.getTitle())
                 .content(post.getContent())
-                .categories(getCategories(post))
-                .tags(getTags(post))
+                .categories(postCategories.stream().map(postCategory -> postCategory.getCategory().getName()).toList())
+                .tags(postTagLIst.stream().map(postTag -> postTag.getTag().getName()).toList())
                 .createdAt(post.getCreatedAt())
                 .updatedAt(post.getUpdatedAt())
                 .build();
     }
 
-    public PostResponse getPost(String postTitle) {
-
-        if (!postRepository.existsByTitle(postTitle)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
+    //This is the most used endpoint, so posts are cached (by title) and every method that changes
+    //the post (here and in CategoryService/TagService) evicts it from the cache through PostCache.
+    //Version of the post (its ETag and Last-Modified) is cached together with it, see VersionedPost
+    @Cacheable(cacheNames = PostCache.NAME, key = "#postTitle")
+    public VersionedPost getPost(String postTitle) {
+        var post = postRepository.findByTitle(postTitle)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
 
-        var post = postRepository.findByTitle(postTitle);
-
-        return PostResponse.builder()
+        var response = PostResponse.builder()
                 .title(post.getTitle())
                 .content(post.getContent())
                 .categories(getCategories(post))
@@ -134,31 +143,46 @@ public class PostService {
                 .createdAt(post.getCreatedAt())
                 .updatedAt(post.getUpdatedAt())
                 .build();
+        return new VersionedPost(response, new ContentVersion(post.getId() + "-" + post.getVersion(), post.getModifiedAt()));
     }
 
-    public List<PostResponse> getAllPosts() {
-        List<Post> posts = postRepository.findAll();
-        return posts.stream()
-                .map(post -> PostResponse.builder()
-                        .title(post.getTitle())
-                        .content(post.getContent())
-                        .categories(getCategories(post))
-                        .tags(getTags(post))
-                        .createdAt(post.getCreatedAt())
-                        .updatedAt(post.getUpdatedAt())
-                        .build()).toList();
+    public PageResponse<PostResponse> getAllPosts(String cursor, int size) {
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<Post> posts = postRepository.findPage(
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
+
+        return getPage(posts, pageSize, this::getPostCursor, this::getPostResponses);
     }
 
-    @Transactional
-    public PostResponse updatePost(String postTitle, PostUpdateRequest request, String bearerToken) {
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
+    //Same as getAllPosts, but returns just summaries of posts (without their whole content)
+    public PageResponse<PostSummaryResponse> getAllPostSummaries(String cursor, int size) {
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<PostSummaryView> posts = postRepository.findSummaryPage(
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
 
-        if (!postRepository.existsByTitleAndUser(postTitle, user)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
+        return getPage(posts, pageSize, this::getPostSummaryCursor, this::getPostSummaryResponses);
+    }
 
-        var post = postRepository.findByTitleAndUser(postTitle, user);
+    //Version of the page returned by getAllPosts or getAllPostSummaries (depending on the view), both have
+    //the same posts, but they are different representations, so their versions are different too
+    public ContentVersion getAllPostsVersion(String cursor, int size, PostView view) {
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<PostVersionView> posts = postRepository.findVersionPage(
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
+
+        return ContentVersion.ofPage(view.name(), posts, pageSize, post -> post.getId() + "-" + post.getVersion());
+    }
+
+    @Transactional
+    public PostResponse updatePost(String postTitle, PostUpdateRequest request, User user) {
+        var post = postRepository.findByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
 
         //For title we check weather it is null and if it is the equal to the one we are updating
         //if both checks pass we then check if new title already exists, if it does not update post title
@@ -182,6 +206,8 @@ public class PostService {
         //just for simplicity’s sake (although we could make it update only if one of the fields has been updated)
         post.setUpdatedAt(LocalDateTime.now());
         postRepository.save(post);
+        postCache.evict(post.getId(), List.of(postTitle, post.getTitle()));
+        postIndexer.reindex(post.getId());
 
         return PostResponse.builder()
                 .title(post.getTitle())
@@ -194,57 +220,104 @@ public class PostService {
     }
 
     @Transactional
-    public String deletePost(String postTitle, String bearerToken) {
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
-
-        if (!postRepository.existsByTitleAndUser(postTitle, user)) {
+    public String deletePost(String postTitle, User user) {
+        //We only need the id of the post, so it is not loaded (together with its comments, categories and tags)
+        var postId = postRepository.findIdByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
+
+        //Names are read before the post (and its categories and tags) is deleted, so their post counts can be decreased
+        List<Long> postIds = List.of(postId);
+        categoryService.decrementPostCounts(postCategoryRepository.findNamesByPostIds(postIds).stream().map(PostNameView::getName).toList());
+        tagService.decrementPostCounts(postTagRepository.findNamesByPostIds(postIds).stream().map(PostNameView::getName).toList());
+
+        //Instead of Hibernate cascading the delete row by row, everything is deleted with one statement
+        //per table (rows which reference the post first). If the post was deleted in the meantime by another
+        //request nothing is deleted, so we throw exception and roll back the changed post counts
+        commentRepository.deleteAllByPostId(postId);
+        postCategoryRepository.deleteAllByPostId(postId);
+        postTagRepository.deleteAllByPostId(postId);
+        if (postRepository.deleteByTitleAndUser(postTitle, user) == 0) {
             throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
         }
-
-        postRepository.deleteByTitleAndUser(postTitle, user);
+        postCache.evictDeleted(postTitle);
+        postIndexer.reindex(postId);
 
         return "Post with the title '" + postTitle + "' deleted";
     }
 
-    public List<PostResponse> getAllPostsByCategory(String categoryName) {
-        if (!categoryRepository.existsByName(categoryName)) {
-            throw new CategoryNotFoundException("Category by the name " + categoryName + " not found!");
-        }
+    public PageResponse<PostResponse> getAllPostsByCategory(String categoryName, String cursor, int size) {
+        var category = getCategory(categoryName);
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<Post> posts = postRepository.findPageByCategory(
+                category, pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
 
-        var category = categoryRepository.findByName(categoryName);
-        List<Post> posts = postCategoryRepository.findByCategory(category).stream()
-                .map(PostCategory::getPost)
-                .toList();
+        return getPage(posts, pageSize, this::getPostCursor, this::getPostResponses);
+    }
 
-        return posts.stream()
-                .map(post -> PostResponse.builder()
-                        .title(post.getTitle())
-                        .content(post.getContent())
-                        .categories(getCategories(post))
-                        .tags(getTags(post))
-                        .createdAt(post.getCreatedAt())
-                        .updatedAt(post.getUpdatedAt())
-                        .build()).toList();
+    public PageResponse<PostSummaryResponse> getAllPostSummariesByCategory(String categoryName, String cursor, int size) {
+        var category = getCategory(categoryName);
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<PostSummaryView> posts = postRepository.findSummaryPageByCategory(
+                category, pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
+
+        return getPage(posts, pageSize, this::getPostSummaryCursor, this::getPostSummaryResponses);
+    }
+
+    public PageResponse<PostResponse> getAllPostsByTag(String tagName, String cursor, int size) {
+        var tag = getTag(tagName);
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<Post> posts = postRepository.findPageByTag(
+                tag, pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
+
+        return getPage(posts, pageSize, this::getPostCursor, this::getPostResponses);
+    }
+
+    public PageResponse<PostSummaryResponse> getAllPostSummariesByTag(String tagName, String cursor, int size) {
+        var tag = getTag(tagName);
+        var pageCursor = PageCursor.decode(cursor);
+        int pageSize = getPageSize(size);
+        List<PostSummaryView> posts = postRepository.findSummaryPageByTag(
+                tag, pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.of(0, pageSize + 1)
+        );
+
+        return getPage(posts, pageSize, this::getPostSummaryCursor, this::getPostSummaryResponses);
     }
 
-    public List<PostResponse> getAllPostsByTag(String tagName) {
-        if (!tagRepository.existsByName(tagName)) {
-            throw new TagNotFoundException("Tag by the name " + tagName + " not found!");
+    //Search results are ordered by how well they match the query (not by date), so instead of the
+    //(created at, id) cursor the next page is found by its position in the results. Only the first
+    //MAX_SEARCH_RESULTS results can be paged through, nobody reads search results further than that
+    public PageResponse<PostSearchResponse> searchPosts(
+            String query, String categoryName, String tagName, String cursor, int size
+    ) {
+        int offset = getSearchOffset(cursor);
+        int pageSize = Math.min(getPageSize(size), Math.max(0, MAX_SEARCH_RESULTS - offset));
+        if (pageSize == 0) {
+            return PageResponse.<PostSearchResponse>builder().content(List.of()).build();
         }
 
-        var tag = tagRepository.findTagByName(tagName);
-        List<Post> posts = postTagRepository.findByTag(tag).stream().map(PostTag::getPost).toList();
+        List<PostSearchResponse> posts = postSearchIndex.search(query, categoryName, tagName, offset, pageSize + 1);
+        boolean hasNext = posts.size() > pageSize && offset + pageSize < MAX_SEARCH_RESULTS;
 
-        return posts.stream()
-                .map(post -> PostResponse.builder()
-                        .title(post.getTitle())
-                        .content(post.getContent())
-                        .categories(getCategories(post))
-                        .tags(getTags(post))
-                        .createdAt(post.getCreatedAt())
-                        .updatedAt(post.getUpdatedAt())
-                        .build()).toList();
+        return PageResponse.<PostSearchResponse>builder()
+                .content(hasNext ? posts.subList(0, pageSize) : posts)
+                .next(hasNext ? String.valueOf(offset + pageSize) : null)
+                .build();
+    }
+
+    private Category getCategory(String categoryName) {
+        return categoryRepository.findByName(categoryName)
+                .orElseThrow(() -> new CategoryNotFoundException("Category by the name " + categoryName + " not found!"));
+    }
+
+    private Tag getTag(String tagName) {
+        return tagRepository.findByName(tagName)
+                .orElseThrow(() -> new TagNotFoundException("Tag by the name " + tagName + " not found!"));
     }
 
     //Two simple methods to extract categories and tags from our db, so they can
@@ -263,4 +336,99 @@ public class PostService {
         var postTags = postTagRepository.findByPost(post);
         return postTags.stream().map(postTag -> postTag.getTag().getName()).toList();
     }
+
+    //We always fetch one post more than the page size, that way we know if there is a next page
+    //without running a count query. If there is, cursor to it is made from the last post of this page
+    private <T, R> PageResponse<R> getPage(
+            List<T> posts,
+            int pageSize,
+            Function<T, PageCursor> cursorOf,
+            Function<List<T>, List<R>> toResponses
+    ) {
+        boolean hasNext = posts.size() > pageSize;
+        List<T> page = hasNext ? posts.subList(0, pageSize) : posts;
+        String next = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+
+        return PageResponse.<R>builder()
+                .content(toResponses.apply(page))
+                .next(next)
+                .build();
+    }
+
+    //Null cursor means that user wants the first page
+    private int getSearchOffset(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset >= 0) {
+                return offset;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new InvalidCursorException("Cursor '" + cursor + "' is not valid!");
+    }
+
+    private int getPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private PageCursor getPostCursor(Post post) {
+        return new PageCursor(post.getCreatedAt(), post.getId());
+    }
+
+    private PageCursor getPostSummaryCursor(PostSummaryView post) {
+        return new PageCursor(post.getCreatedAt(), post.getId());
+    }
+
+    //When we are returning more than one post, calling the two methods above for every post
+    //would cost us two (or more) queries per post, so instead we fetch names of categories/tags
+    //for all posts at once (one query each) and then just group them by post id
+    private List<PostResponse> getPostResponses(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> postIds = posts.stream().map(Post::getId).toList();
+        Map<Long, List<String>> categories = groupNamesByPostId(postCategoryRepository.findNamesByPostIds(postIds));
+        Map<Long, List<String>> tags = groupNamesByPostId(postTagRepository.findNamesByPostIds(postIds));
+
+        return posts.stream()
+                .map(post -> PostResponse.builder()
+                        .title(post.getTitle())
+                        .content(post.getContent())
+                        .categories(categories.getOrDefault(post.getId(), List.of()))
+                        .tags(tags.getOrDefault(post.getId(), List.of()))
+                        .createdAt(post.getCreatedAt())
+                        .updatedAt(post.getUpdatedAt())
+                        .build()).toList();
+    }
+
+    private List<PostSummaryResponse> getPostSummaryResponses(List<PostSummaryView> posts) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> postIds = posts.stream().map(PostSummaryView::getId).toList();
+        Map<Long, List<String>> categories = groupNamesByPostId(postCategoryRepository.findNamesByPostIds(postIds));
+        Map<Long, List<String>> tags = groupNamesByPostId(postTagRepository.findNamesByPostIds(postIds));
+
+        return posts.stream()
+                .map(post -> PostSummaryResponse.builder()
+                        .title(post.getTitle())
+                        .excerpt(post.getExcerpt())
+                        .categories(categories.getOrDefault(post.getId(), List.of()))
+                        .tags(tags.getOrDefault(post.getId(), List.of()))
+                        .createdAt(post.getCreatedAt())
+                        .updatedAt(post.getUpdatedAt())
+                        .build()).toList();
+    }
+
+    private Map<Long, List<String>> groupNamesByPostId(List<PostNameView> names) {
+        return names.stream().collect(Collectors.groupingBy(
+                PostNameView::getPostId,
+                Collectors.mapping(PostNameView::getName, Collectors.toList())
+        ));
+    }
 }
@@ -1,30 +1,41 @@
 package com.example.blog.service;
 
 import com.example.blog.dto.TagDto;
+import com.example.blog.dto.NameCountResponse;
 import com.example.blog.entity.PostTag;
 import com.example.blog.entity.PostTagId;
 import com.example.blog.entity.Tag;
+import com.example.blog.entity.User;
 import com.example.blog.exception.*;
 import com.example.blog.repository.PostRepository;
 import com.example.blog.repository.PostTagRepository;
 import com.example.blog.repository.TagRepository;
-import com.example.blog.repository.UserRepository;
-import com.example.blog.security.JwtService;
+import com.example.blog.search.TagNameIndex;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TagService {
 
+    //Biggest number of names autocomplete can return
+    private static final int MAX_AUTOCOMPLETE_SIZE = 50;
+
+    //Biggest number of tags popular tags can return
+    private static final int MAX_POPULAR_SIZE = 50;
+
     private final TagRepository tagRepository;
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
-    private final JwtService jwtService;
     private final PostTagRepository postTagRepository;
+    private final PostCache postCache;
+    private final PostIndexer postIndexer;
+    private final TagNameIndex tagNameIndex;
 
     //Just like in CategoryService most of these methods are simple methods for CRUD operations so
     //there is no need to explain what they do, especially since they are not using
@@ -36,6 +47,7 @@ public class TagService {
 
         var tag = Tag.builder().name(request.getName()).build();
         tagRepository.save(tag);
+        tagNameIndex.add(tag.getName());
 
         return new TagDto(request.getName());
     }
@@ -53,29 +65,51 @@ public class TagService {
         return tags.stream().map(tag -> new TagDto(tag.getName())).toList();
     }
 
+    //Tags whose names start with the prefix (ignoring case) with their post counts, in alphabetical order.
+    //Answered from TagNameIndex, so it never goes to the database (it is called on every keystroke)
+    public List<NameCountResponse> autocompleteTags(String prefix, int size) {
+        return tagNameIndex.findByPrefix(prefix, Math.max(1, Math.min(size, MAX_AUTOCOMPLETE_SIZE)));
+    }
+
+    //Tags with the most posts, read from their post counts (see incrementPostCounts)
+    public List<NameCountResponse> getPopularTags(int size) {
+        return tagRepository.findPopular(PageRequest.of(0, Math.max(1, Math.min(size, MAX_POPULAR_SIZE)))).stream()
+                .map(nameCount -> new NameCountResponse(nameCount.getName(), nameCount.getPostCount()))
+                .toList();
+    }
+
     @Transactional
     public String updateTag(String tagName, TagDto request) {
-        if (!tagRepository.existsByName(tagName)) {
-            throw new TagNotFoundException("Category '" + tagName + "' not found!");
-        }
+        var tag = tagRepository.findByName(tagName)
+                .orElseThrow(() -> new TagNotFoundException("Category '" + tagName + "' not found!"));
         if (tagRepository.existsByName(request.getName())) {
             throw new TagAlreadyExistsException("Tag '" + request.getName() + "' already exists!");
         }
 
-        var tag = tagRepository.findTagByName(tagName);
+        //Every post with this tag will show it under the new name, so we evict them and reindex them
+        //(we have to find them before renaming since we are finding them by the old name)
+        postCache.evictByTag(tag.getId());
+        postIndexer.reindex(postTagRepository.findPostIdsByTagName(tagName));
+
         tag.setName(request.getName());
         tagRepository.save(tag);
+        tagNameIndex.rename(tagName, request.getName());
 
         return "Tag '" + tagName + "' changed/updated to '" + request.getName() + "'";
     }
 
     @Transactional
     public String deleteTag(String tagName) {
-        if (!tagRepository.existsByName(tagName)) {
-            throw new TagNotFoundException("Tag '" + tagName + "' not found!");
-        }
+        var tag = tagRepository.findByName(tagName)
+                .orElseThrow(() -> new TagNotFoundException("Tag '" + tagName + "' not found!"));
 
-        tagRepository.deleteByName(tagName);
+        postCache.evictByTag(tag.getId());
+        postIndexer.reindex(postTagRepository.findPostIdsByTagName(tagName));
+        //Bridge rows are deleted with one statement and then the tag itself (also without cascading through its
+        //postTags), so deleting a tag of many posts does not load and delete every bridge row on its own
+        postTagRepository.deleteAllByTagId(tag.getId());
+        tagRepository.deleteAllByIdInBatch(List.of(tag.getId()));
+        tagNameIndex.remove(tagName);
 
         return "Tag '" + tagName + "' deleted!";
     }
@@ -84,32 +118,23 @@ public class TagService {
     //which makes this method look somewhat more complicated (which it isn't).
     //However, unlike in CategoryService this method is little bit different
     @Transactional
-    public String addTagToPost(String postTitle, TagDto request, String bearerToken) {
+    public String addTagToPost(String postTitle, TagDto request, User user) {
         //Again, unlike previous methods here we are editing posts and only users that created that post
-        //can edit it, that is why we are fetching user by getting token from header and
-        //extracting username (email in our case) from it and using it to get user
-        //(we do not need to check if user exists in our db since if he does not exist
-        //the token will fail)
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
-
-        if (!postRepository.existsByTitleAndUser(postTitle, user)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
-        }
+        //can edit it, that is why we get the user who sent the request (JwtAuthenticationFilter already
+        //loaded him from the token, so controller just passes him here)
+        var post = postRepository.findByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
         //Here is where this method differs from the one from CategoryService.
         //Unlike in CategoryService, here if the tag the user provided does not exist
         //we create it and save it to our db. We do that because unlike categories
         //tags are more arbitrary
-        if (!tagRepository.existsByName(request.getName())) {
+        var tag = tagRepository.findByName(request.getName()).orElseGet(() -> {
             Tag newTag = new Tag();
             newTag.setName(request.getName());
-            tagRepository.save(newTag);
-        }
+            return tagRepository.save(newTag);
+        });
 
         //And just like already said the rest of the code is pretty much the same as CategoryService
-        //After we did the check we get post and tag
-        var post = postRepository.findByTitleAndUser(postTitle, user);
-        var tag = tagRepository.findTagByName(request.getName());
 
         //Which we then use to check if they are connected. If they are not throw exception, else continue
         if (postTagRepository.existsByPostAndTag(post, tag)) {
@@ -130,46 +155,128 @@ public class TagService {
         postTags.add(postTagToAdd);
         post.setPostTags(postTags);
         postRepository.save(post);
+        postCache.evict(post.getId(), postTitle);
+        postIndexer.reindex(post.getId());
+
+        incrementPostCounts(List.of(tag.getName()));
 
         return request.getName() + " tag added to the post '" + postTitle + "'";
     }
 
-    //This one is very similar to the method before it, with just couple of changes
+    //Same as addTagToPost, but for the whole list at once: tags are found (and missing ones created)
+    //with one query and one batched insert, post is loaded once and everything happens in one transaction,
+    //so either all tags are added to the post or none of them is
     @Transactional
-    public String deleteTagFromPost(String postTitle, TagDto request, String bearerToken) {
-        String username = jwtService.extractUsername(bearerToken.substring(7));
-        var user = userRepository.findUserByEmail(username);
+    public String addTagsToPost(String postTitle, List<TagDto> request, User user) {
+        var post = postRepository.findByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
+
+        var tags = findOrCreateTags(request.stream().map(TagDto::getName).toList());
 
-        if (!postRepository.existsByTitleAndUser(postTitle, user)) {
-            throw new PostNotFoundException("Post with the title '" + postTitle + "' not found!");
+        //Ids of tags the post already has, so we do not have to ask the db for every tag
+        var postTags = post.getPostTags();
+        Set<Long> postTagIds = postTags.stream()
+                .map(postTag -> postTag.getPostTagId().getTagId())
+                .collect(Collectors.toSet());
+
+        for (Tag tag : tags) {
+            if (postTagIds.contains(tag.getId())) {
+                throw new PostAlreadyContainsThatTagException(
+                        "Post '" + postTitle + "' already contains tag '" + tag.getName() + "'"
+                );
+            }
+            postTags.add(PostTag.builder()
+                    .postTagId(new PostTagId(post.getId(), tag.getId()))
+                    .post(post)
+                    .tag(tag)
+                    .build());
         }
+
+        post.setPostTags(postTags);
+        postRepository.save(post);
+        postCache.evict(post.getId(), postTitle);
+        postIndexer.reindex(post.getId());
+
+        incrementPostCounts(tags.stream().map(Tag::getName).toList());
+
+        return "All tags added to the post '" + postTitle + "'";
+    }
+
+    //This one is very similar to the method before it, with just couple of changes
+    @Transactional
+    public String deleteTagFromPost(String postTitle, TagDto request, User user) {
+        var post = postRepository.findByTitleAndUser(postTitle, user)
+                .orElseThrow(() -> new PostNotFoundException("Post with the title '" + postTitle + "' not found!"));
         //Here unlike before, if tag does not exist in our db we throw exception.
         //We do that because if tag does not exist that means the post can not be connected to it
-        if (!tagRepository.existsByName(request.getName())) {
-            throw new TagNotFoundException("Category '" + request.getName() + "' not found!");
-        }
+        var tag = tagRepository.findByName(request.getName())
+                .orElseThrow(() -> new TagNotFoundException("Category '" + request.getName() + "' not found!"));
 
-        var post = postRepository.findByTitleAndUser(postTitle, user);
-        var tag = tagRepository.findTagByName(request.getName());
-
-        //Unlike in previous method, here we check if connection does not exist (because we need it to exist
-        //to be able to remove/delete it), if it does not exist throw exception
-        if (!postTagRepository.existsByPostAndTag(post, tag)) {
-            throw new PostDoesNotContainThatTagException(
-                    "Post '" + postTitle + "' does not contain tag '" + request.getName() + "'"
-            );
-        }
+        //Unlike in previous method, here we need the connection to exist (to be able to remove/delete it),
+        //if it does not exist throw exception
+        var postTagToRemove = postTagRepository.findByPostAndTag(post, tag)
+                .orElseThrow(() -> new PostDoesNotContainThatTagException(
+                        "Post '" + postTitle + "' does not contain tag '" + request.getName() + "'"
+                ));
 
         //Then just like before we get our PostTag from our post, however unlike before we do not
         //add the new connection to our bridge table but rather remove the tag from our post (PostTag)
         //and then save that updated post again to our db
         var postTags = post.getPostTags();
-        var postTagToRemove = postTagRepository.findByPostAndTag(post, tag);
 
         postTags.remove(postTagToRemove);
         post.setPostTags(postTags);
         postRepository.save(post);
+        postCache.evict(post.getId(), postTitle);
+        postIndexer.reindex(post.getId());
+
+        decrementPostCounts(List.of(tag.getName()));
 
         return request.getName() + " tag removed from the post '" + postTitle + "'";
     }
+
+    //Returns tags with given names (in the same order, without duplicates), and creates the ones
+    //that do not exist yet. Instead of looking up every name on its own, existing tags are fetched
+    //with one "where name in (...)" query and the missing ones are saved together, so Hibernate
+    //can insert them in one JDBC batch. Should be called inside a transaction
+    public List<Tag> findOrCreateTags(Collection<String> names) {
+        Set<String> uniqueNames = new LinkedHashSet<>(names);
+        if (uniqueNames.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Tag> tagsByName = tagRepository.findAllByNameIn(uniqueNames).stream()
+                .collect(Collectors.toMap(Tag::getName, Function.identity()));
+
+        List<Tag> newTags = new ArrayList<>();
+        for (String name : uniqueNames) {
+            if (!tagsByName.containsKey(name)) {
+                Tag newTag = new Tag();
+                newTag.setName(name);
+                newTags.add(newTag);
+            }
+        }
+        tagRepository.saveAll(newTags).forEach(tag -> tagsByName.put(tag.getName(), tag));
+
+        return uniqueNames.stream().map(tagsByName::get).toList();
+    }
+
+    //Post counts of the tags are changed in the same transaction which adds them to the post (or removes them),
+    //with one update of all of them, and TagNameIndex gets the change after it commits.
+    //Called from here and from PostService (creating and deleting posts)
+    public void incrementPostCounts(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        tagRepository.addToPostCount(names, 1);
+        tagNameIndex.addPost(names);
+    }
+
+    public void decrementPostCounts(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        tagRepository.addToPostCount(names, -1);
+        tagNameIndex.removePost(names);
+    }
 }
@@ -5,64 +5,75 @@ import com.example.blog.dto.UserLoginRequest;
 import com.example.blog.dto.UserRegisterRequest;
 import com.example.blog.entity.Role;
 import com.example.blog.entity.User;
-import com.example.blog.exception.InvalidRepeatedPasswordException;
 import com.example.blog.exception.UserAlreadyExistsException;
-import com.example.blog.exception.UserNotFoundException;
 import com.example.blog.repository.UserRepository;
 import com.example.blog.security.JwtService;
+import com.example.blog.security.LoginRateLimiter;
+import com.example.blog.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final LoginRateLimiter loginRateLimiter;
+    //Spring's application task executor (picked by the name of the field), see register
+    private final Executor applicationTaskExecutor;
 
-
-    public AuthenticationResponse register(UserRegisterRequest request) {
+    //Password is hashed on PasswordHasher threads (it is the most expensive part of the registration), so the
+    //request thread does not wait for it. The rest of the registration (saving the user and signing the token)
+    //continues on the application task executor, because PasswordHasher threads should only hash, if they
+    //waited for the database too, a slow database would fill the hasher queue and registrations would be
+    //refused even though there are cores free for hashing. Passwords match is already checked by @PasswordsMatch
+    //on the request
+    public CompletableFuture<AuthenticationResponse> register(UserRegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new UserAlreadyExistsException("User with provided email already exists!");
         }
-        if (!request.getPassword().equals(request.getRepeatPassword())) {
-            throw new InvalidRepeatedPasswordException("Passwords do not match, please try again!");
-        }
 
-        var user = User.builder()
-                .firstName(request.getFirstName())
-                .lastName(request.getLastName())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .repeatPassword(passwordEncoder.encode(request.getRepeatPassword()))
-                .role(Role.USER)
-                .build();
+        return passwordHasher.hash(request.getPassword()).thenApplyAsync(encodedPassword -> {
+            var user = User.builder()
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .email(request.getEmail())
+                    .password(encodedPassword)
+                    .role(Role.USER)
+                    .build();
 
-        userRepository.save(user);
+            userRepository.save(user);
 
-        var jwtToken = jwtService.generateToken(user);
+            var jwtToken = jwtService.generateToken(user);
 
-        return AuthenticationResponse.builder().token(jwtToken).build();
+            return AuthenticationResponse.builder().token(jwtToken).build();
+        }, applicationTaskExecutor);
     }
 
-    public AuthenticationResponse login(UserLoginRequest request) {
-        if (!userRepository.existsByEmail(request.getEmail())) {
-            throw new UserNotFoundException("User with provided email does not exist!");
-        }
-        authenticationManager.authenticate(
+    //Login attempts are limited per account and per ip (see LoginRateLimiter) before the password is checked.
+    //User is taken from the Authentication (UserDetailsService already loaded him to check the password),
+    //so we do not have to find him again. If the email does not exist or the password is wrong
+    //authenticate throws BadCredentialsException
+    public AuthenticationResponse login(UserLoginRequest request, String clientIp) {
+        loginRateLimiter.checkAttempt(request.getEmail(), clientIp);
+
+        var authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
                         request.getPassword()
                 )
         );
+        loginRateLimiter.loginSucceeded(request.getEmail());
 
-        var user = userRepository.findUserByEmail(request.getEmail());
-        var jwtToken = jwtService.generateToken(user);
+        var jwtToken = jwtService.generateToken((User) authentication.getPrincipal());
 
         return AuthenticationResponse.builder().token(jwtToken).build();
     }
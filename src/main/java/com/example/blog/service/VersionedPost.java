@@ -0,0 +1,16 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.PostResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Post together with its version (ETag and Last-Modified), both read from the same row. This is what
+//PostService.getPost caches, so the version sent with the post always belongs to that post, and a cache hit
+//does not have to ask the database for the version
+@Getter
+@AllArgsConstructor
+public class VersionedPost {
+
+    private final PostResponse post;
+    private final ContentVersion version;
+}
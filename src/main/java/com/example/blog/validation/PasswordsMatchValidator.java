@@ -0,0 +1,23 @@
+package com.example.blog.validation;
+
+import com.example.blog.dto.UserRegisterRequest;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import java.util.Objects;
+
+public class PasswordsMatchValidator implements ConstraintValidator<PasswordsMatch, UserRegisterRequest> {
+
+    @Override
+    public boolean isValid(UserRegisterRequest request, ConstraintValidatorContext context) {
+        if (request == null || Objects.equals(request.getPassword(), request.getRepeatPassword())) {
+            return true;
+        }
+
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                .addPropertyNode("repeatPassword")
+                .addConstraintViolation();
+        return false;
+    }
+}
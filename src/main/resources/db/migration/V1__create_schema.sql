@@ -0,0 +1,100 @@
+-- Initial schema. Sequences are incremented by 50, because entities allocate ids in blocks
+-- of 50 (allocationSize), and every index here matches some of the repository queries
+
+CREATE SEQUENCE users_id_sequence START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE posts_id_sequence START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE categories_id_sequence START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE tags_id_sequence START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE comments_id_sequence START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users
+(
+    id                BIGINT       NOT NULL,
+    first_name        VARCHAR(255) NOT NULL,
+    last_name         VARCHAR(255) NOT NULL,
+    email             VARCHAR(255) NOT NULL,
+    password          VARCHAR(255) NOT NULL,
+    repeated_password VARCHAR(255) NOT NULL,
+    role              VARCHAR(255),
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    -- findByEmail (every authenticated request) and existsByEmail (register)
+    CONSTRAINT user_email_unique UNIQUE (email)
+);
+
+CREATE TABLE posts
+(
+    id         BIGINT       NOT NULL,
+    title      VARCHAR(255) NOT NULL,
+    content    TEXT         NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    CONSTRAINT posts_pkey PRIMARY KEY (id),
+    CONSTRAINT post_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id),
+    -- existsByTitleAndUser/findByTitleAndUser, and since title comes first also findByTitle/existsByTitle
+    CONSTRAINT post_title_user_id_unique UNIQUE (title, user_id)
+);
+
+-- Keyset pagination (findPage and findSummaryPage), "order by created_at desc, id desc"
+CREATE INDEX post_created_at_id_idx ON posts (created_at DESC, id DESC);
+-- Posts of the user (deleting the user and his posts)
+CREATE INDEX post_user_id_idx ON posts (user_id);
+
+CREATE TABLE categories
+(
+    id   BIGINT       NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT categories_pkey PRIMARY KEY (id),
+    -- findByName/existsByName/findAllByNameIn
+    CONSTRAINT category_name_unique UNIQUE (name)
+);
+
+CREATE TABLE tags
+(
+    id   BIGINT       NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT tags_pkey PRIMARY KEY (id),
+    -- findByName/existsByName/findAllByNameIn
+    CONSTRAINT tag_name_unique UNIQUE (name)
+);
+
+-- Primary keys of bridge tables start with post_id, so they are used to find categories/tags of the post,
+-- while the reverse indexes are used to find posts of the category/tag (findPageByCategory, findPageByTag...)
+CREATE TABLE post_categories
+(
+    post_id     BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    CONSTRAINT post_categories_pkey PRIMARY KEY (post_id, category_id),
+    CONSTRAINT post_categories_post_id_fk FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT post_categories_category_id_fk FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE INDEX post_categories_category_id_post_id_idx ON post_categories (category_id, post_id);
+
+CREATE TABLE post_tags
+(
+    post_id BIGINT NOT NULL,
+    tag_id  BIGINT NOT NULL,
+    CONSTRAINT post_tags_pkey PRIMARY KEY (post_id, tag_id),
+    CONSTRAINT post_tags_post_id_fk FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT post_tags_tag_id_fk FOREIGN KEY (tag_id) REFERENCES tags (id)
+);
+
+CREATE INDEX post_tags_tag_id_post_id_idx ON post_tags (tag_id, post_id);
+
+CREATE TABLE comments
+(
+    id         BIGINT       NOT NULL,
+    content    TEXT         NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    post_id    BIGINT       NOT NULL,
+    CONSTRAINT comments_pkey PRIMARY KEY (id),
+    CONSTRAINT comment_user_id_fk FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT comment_post_id_fk FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+
+-- findAllByPost and every comment lookup by (id, post)
+CREATE INDEX comment_post_id_idx ON comments (post_id);
+CREATE INDEX comment_user_id_idx ON comments (user_id);
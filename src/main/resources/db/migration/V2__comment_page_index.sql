@@ -0,0 +1,4 @@
+-- Keyset pagination of the comments of the post (findPageByPost), "where post_id = ? order by created_at desc, id desc".
+-- The new index starts with post_id, so it is also used for comment lookups by (id, post) and the old index is not needed
+CREATE INDEX comment_post_id_created_at_id_idx ON comments (post_id, created_at DESC, id DESC);
+DROP INDEX comment_post_id_idx;
@@ -0,0 +1,11 @@
+-- Number of posts of every category/tag. Services change it in the same transaction which adds the category/tag
+-- to the post (or removes it), so popular categories/tags are read without counting rows of the bridge tables
+ALTER TABLE categories ADD COLUMN post_count BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tags ADD COLUMN post_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE categories c SET post_count = (SELECT count(*) FROM post_categories pc WHERE pc.category_id = c.id);
+UPDATE tags t SET post_count = (SELECT count(*) FROM post_tags pt WHERE pt.tag_id = t.id);
+
+-- findPopular, "order by post_count desc, name" with a limit is just a scan of the first entries of the index
+CREATE INDEX category_post_count_name_idx ON categories (post_count DESC, name);
+CREATE INDEX tag_post_count_name_idx ON tags (post_count DESC, name);
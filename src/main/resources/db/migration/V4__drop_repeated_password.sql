@@ -0,0 +1,3 @@
+-- Repeated password is only checked when the user registers (UserRegisterRequest), there is no need to store
+-- its hash (which was the same password hashed once more)
+ALTER TABLE users DROP COLUMN repeated_password;
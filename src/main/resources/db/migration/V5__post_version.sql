@@ -0,0 +1,7 @@
+-- Version of the post and the time it was last changed. Both are changed by everything that changes how the post
+-- looks, including its categories and tags (which do not touch updated_at), so ETag and Last-Modified of the post
+-- are made from them and clients can revalidate the post without downloading it again
+ALTER TABLE posts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE posts ADD COLUMN modified_at TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP;
+
+UPDATE posts SET modified_at = updated_at;
@@ -0,0 +1,93 @@
+package com.example.blog.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, Duration.ofMillis(10));
+    }
+
+    @Test
+    void testGetConnectionOverLimitShouldThrowSQLTransientConnectionException() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+
+        // Then
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class);
+        verify(targetDataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void testCloseShouldLetNextThreadGetConnection() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+
+        // When
+        first.close();
+        //Closing it again must not release one more permit
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // Then
+        assertThat(second).isNotNull();
+        verify(connection, times(2)).close();
+        assertThatThrownBy(() -> dataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void testFailedGetConnectionShouldReleasePermit() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection())
+                .thenThrow(new SQLException("Connection refused"))
+                .thenReturn(connection);
+
+        // When
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLException.class);
+        Connection expected = dataSource.getConnection();
+
+        // Then
+        assertThat(expected).isNotNull();
+    }
+
+    @Test
+    void testConnectionShouldDelegateCallsToTargetConnection() throws SQLException {
+        // Given
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+
+        // When
+        boolean expected = dataSource.getConnection().getAutoCommit();
+
+        // Then
+        assertThat(expected).isTrue();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.blog.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Fails the test when it executes more SQL statements than "value" (statements of @BeforeEach methods are not
+//counted). Statements are only counted through the DataSource wrapped by QueryCountConfiguration, so tests
+//which use it (for example @DataJpaTest) have to @Import(QueryCountConfiguration.class)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryCountExtension.class)
+public @interface MaxQueries {
+
+    long value();
+}
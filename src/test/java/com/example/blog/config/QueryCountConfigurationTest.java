@@ -0,0 +1,78 @@
+package com.example.blog.config;
+
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import com.example.blog.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(QueryCountConfiguration.class)
+class QueryCountConfigurationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    @Test
+    void testExecutedStatementsShouldBeCounted() {
+        // Given
+        QueryCounter.start();
+
+        // When
+        userRepository.findByEmail("john_evans@gmail.com");
+        userRepository.existsByEmail("other@gmail.com");
+
+        // Then
+        assertThat(QueryCounter.current().statements()).isEqualTo(2);
+    }
+
+    @Test
+    void testStatementsShouldNotBeCountedWhenCounterIsNotStarted() {
+        // When
+        userRepository.findByEmail("john_evans@gmail.com");
+
+        // Then
+        assertThat(QueryCounter.current().statements()).isZero();
+    }
+
+    @Test
+    @MaxQueries(1)
+    void testFindByEmailShouldRunOneQuery() {
+        // When
+        var expected = userRepository.findByEmail("john_evans@gmail.com");
+
+        // Then
+        assertThat(expected).isPresent();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.blog.config;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+//Counts statements of the test method annotated with @MaxQueries and checks that there were not too many of them
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCounter.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryCounter.QueryCount count = QueryCounter.stop();
+        AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxQueries.class)
+                .ifPresent(maxQueries -> {
+                    if (count.statements() > maxQueries.value()) {
+                        throw new AssertionError("Expected at most " + maxQueries.value()
+                                + " SQL statements, but " + count.statements() + " were executed");
+                    }
+                });
+    }
+}
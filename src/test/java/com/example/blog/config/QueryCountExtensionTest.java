@@ -0,0 +1,61 @@
+package com.example.blog.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueryCountExtensionTest {
+
+    @Mock
+    private ExtensionContext context;
+
+    private final QueryCountExtension extension = new QueryCountExtension();
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    @Test
+    void testTooManyStatementsShouldFailTest() throws NoSuchMethodException {
+        // Given
+        when(context.getRequiredTestMethod()).thenReturn(getClass().getDeclaredMethod("twoQueries"));
+        extension.beforeTestExecution(context);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            QueryCounter.record(1);
+        }
+
+        // Then
+        assertThatThrownBy(() -> extension.afterTestExecution(context))
+                .isInstanceOf(AssertionError.class)
+                .hasMessage("Expected at most 2 SQL statements, but 3 were executed");
+    }
+
+    @Test
+    void testStatementsUnderLimitShouldPass() throws NoSuchMethodException {
+        // Given
+        when(context.getRequiredTestMethod()).thenReturn(getClass().getDeclaredMethod("twoQueries"));
+        extension.beforeTestExecution(context);
+
+        // When
+        QueryCounter.record(1);
+        QueryCounter.record(1);
+
+        // Then
+        assertThatCode(() -> extension.afterTestExecution(context)).doesNotThrowAnyException();
+    }
+
+    @MaxQueries(2)
+    private void twoQueries() {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.blog.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCountFilterTest {
+
+    private final QueryCountFilter filter = new QueryCountFilter(1);
+
+    @Test
+    void testStatementsOfRequestShouldBeCountedOnlyDuringRequest() throws Exception {
+        // Given
+        AtomicReference<QueryCounter.QueryCount> duringRequest = new AtomicReference<>();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/posts/all"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    QueryCounter.record(2);
+                    QueryCounter.record(3);
+                    duringRequest.set(QueryCounter.current());
+                });
+
+        // Then
+        assertThat(duringRequest.get()).isEqualTo(new QueryCounter.QueryCount(2, 5));
+        assertThat(QueryCounter.current()).isEqualTo(new QueryCounter.QueryCount(0, 0));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.blog.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCountResponseAdviceTest {
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    @Test
+    void testBeforeBodyWriteShouldAddQueryCountHeaders() {
+        // Given
+        QueryCountResponseAdvice advice = new QueryCountResponseAdvice(true);
+        ServletServerHttpResponse response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        QueryCounter.start();
+        QueryCounter.record(4);
+        QueryCounter.record(3);
+
+        // When
+        advice.beforeBodyWrite("body", null, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class,
+                new ServletServerHttpRequest(new MockHttpServletRequest()), response);
+
+        // Then
+        assertThat(response.getHeaders().getFirst(QueryCountResponseAdvice.QUERY_COUNT_HEADER)).isEqualTo("2");
+        assertThat(response.getHeaders().getFirst(QueryCountResponseAdvice.QUERY_TIME_HEADER)).isEqualTo("7");
+    }
+
+    @Test
+    void testSupportsShouldBeFalseWhenHeaderIsDisabled() {
+        // Given
+        QueryCountResponseAdvice advice = new QueryCountResponseAdvice(false);
+
+        // When
+        boolean expected = advice.supports(null, MappingJackson2HttpMessageConverter.class);
+
+        // Then
+        assertThat(expected).isFalse();
+    }
+}
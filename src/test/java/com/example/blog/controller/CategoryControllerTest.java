@@ -1,6 +1,9 @@
 package com.example.blog.controller;
 
 import com.example.blog.dto.CategoryDto;
+import com.example.blog.dto.NameCountResponse;
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
 import com.example.blog.security.JwtService;
 import com.example.blog.service.CategoryService;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -12,6 +15,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -45,11 +50,17 @@ class CategoryControllerTest {
     private CategoryDto categoryDto;
     private String categoryName;
     private String postTitle;
-    private final String jwtToken = "token";
+    private final User author = User.builder().email("john_evans@gmail.com").role(Role.USER).build();
     private static final String END_POINT_PATH = "/api/v1/posts";
 
     @BeforeEach
     void setUp() {
+        //Filters are turned off, so we authenticate the user ourselves (just like JwtAuthenticationFilter would)
+        //and controllers get him through @AuthenticationPrincipal
+        TestSecurityContextHolder.setAuthentication(
+                new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities())
+        );
+
         categoryDto = CategoryDto.builder().name("category").build();
 
         categoryName = "category";
@@ -64,7 +75,6 @@ class CategoryControllerTest {
 
         // Then
         mockMvc.perform(post(END_POINT_PATH + "/categories/create")
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(categoryDto)))
                 .andExpect(status().isCreated())
@@ -82,7 +92,6 @@ class CategoryControllerTest {
 
         // Then
         MvcResult result = mockMvc.perform(post(END_POINT_PATH + "/categories/create-multi")
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(List.of(categoryDto, categoryDto2))))
                 .andExpect(status().isCreated())
@@ -110,6 +119,38 @@ class CategoryControllerTest {
                 .andExpect(content().string(response));
     }
 
+    @Test
+    void autocompleteCategories() throws Exception {
+        // Given
+        NameCountResponse name = new NameCountResponse(categoryDto.getName(), 3);
+
+        // When
+        when(categoryService.autocompleteCategories("ca", 10)).thenReturn(List.of(name));
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/categories/autocomplete")
+                        .param("prefix", "ca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(name.getName()))
+                .andExpect(jsonPath("$[0].postCount").value(name.getPostCount()));
+    }
+
+    @Test
+    void getPopularCategories() throws Exception {
+        // Given
+        NameCountResponse name = new NameCountResponse(categoryDto.getName(), 3);
+
+        // When
+        when(categoryService.getPopularCategories(5)).thenReturn(List.of(name));
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/categories/popular")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(name.getName()))
+                .andExpect(jsonPath("$[0].postCount").value(name.getPostCount()));
+    }
+
     @Test
     void getAllCategories() throws Exception {
         // Given
@@ -139,7 +180,6 @@ class CategoryControllerTest {
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/categories/update/{categoryName}", categoryName)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(categoryDto)))
                 .andExpect(status().isOk())
@@ -155,8 +195,7 @@ class CategoryControllerTest {
         when(categoryService.deleteCategory(categoryName)).thenReturn(response);
 
         // Then
-        mockMvc.perform(delete(END_POINT_PATH + "/categories/delete/{categoryName}", categoryName)
-                .header("Authorization", jwtToken))
+        mockMvc.perform(delete(END_POINT_PATH + "/categories/delete/{categoryName}", categoryName))
                 .andExpect(status().isOk())
                 .andExpect(content().string(response));
     }
@@ -167,11 +206,10 @@ class CategoryControllerTest {
         String response = "Category added";
 
         // When
-        when(categoryService.addCategoryToPost(postTitle, categoryDto, jwtToken)).thenReturn(response);
+        when(categoryService.addCategoryToPost(postTitle, categoryDto, author)).thenReturn(response);
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/{postTitle}/categories/add", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(categoryDto)))
                 .andExpect(status().isOk())
@@ -184,11 +222,10 @@ class CategoryControllerTest {
         String response = "All categories added to the post '" + postTitle + "'";
 
         // When
-        when(categoryService.addCategoryToPost(postTitle, categoryDto, jwtToken)).thenReturn(response);
+        when(categoryService.addCategoriesToPost(postTitle, List.of(categoryDto), author)).thenReturn(response);
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/{postTitle}/categories/add-multi", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(List.of(categoryDto))))
                 .andExpect(status().isOk())
@@ -201,11 +238,10 @@ class CategoryControllerTest {
         String response = "Category deleted from the post";
 
         // When
-        when(categoryService.deleteCategoryFromPost(postTitle, categoryDto, jwtToken)).thenReturn(response);
+        when(categoryService.deleteCategoryFromPost(postTitle, categoryDto, author)).thenReturn(response);
 
         // Then
         mockMvc.perform(delete(END_POINT_PATH + "/{postTitle}/categories/delete", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(categoryDto)))
                 .andExpect(status().isOk())
@@ -2,8 +2,12 @@ package com.example.blog.controller;
 
 import com.example.blog.dto.CommentRequest;
 import com.example.blog.dto.CommentResponse;
+import com.example.blog.dto.PageResponse;
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
 import com.example.blog.security.JwtService;
 import com.example.blog.service.CommentService;
+import com.example.blog.service.ContentVersion;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +16,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -21,6 +28,9 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,11 +55,17 @@ class CommentControllerTest {
     private CommentResponse commentResponse;
     private Long commentId;
     private String postTitle;
-    private final String jwtToken = "token";
+    private final User author = User.builder().email("john_evans@gmail.com").role(Role.USER).build();
     private static final String END_POINT_PATH = "/api/v1/posts";
 
     @BeforeEach
     void setUp() {
+        //Filters are turned off, so we authenticate the user ourselves (just like JwtAuthenticationFilter would)
+        //and controllers get him through @AuthenticationPrincipal
+        TestSecurityContextHolder.setAuthentication(
+                new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities())
+        );
+
         commentRequest = CommentRequest.builder().content("Content").build();
 
         commentResponse = CommentResponse.builder()
@@ -62,16 +78,18 @@ class CommentControllerTest {
         commentId = 1L;
 
         postTitle = "Test";
+
+        when(commentService.getAllCommentsVersion(anyString(), any(), anyInt()))
+                .thenReturn(new ContentVersion("page", null));
     }
 
     @Test
     void createComment() throws Exception {
         // When
-        when(commentService.createComment(postTitle, commentRequest, jwtToken)).thenReturn(commentResponse);
+        when(commentService.createComment(postTitle, commentRequest, author)).thenReturn(commentResponse);
 
         // Then
         mockMvc.perform(post(END_POINT_PATH + "/{postTitle}/comments/create", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(commentRequest)))
                 .andExpect(status().isCreated())
@@ -98,10 +116,12 @@ class CommentControllerTest {
     @Test
     void getAllComments() throws Exception {
         // Given
-        List<CommentResponse> expectedCommentResponseList = Collections.singletonList(commentResponse);
+        PageResponse<CommentResponse> expectedCommentResponsePage = new PageResponse<>(
+                Collections.singletonList(commentResponse), "next"
+        );
 
         // When
-        when(commentService.getAllComments(postTitle)).thenReturn(List.of(commentResponse));
+        when(commentService.getAllComments(postTitle, null, 20)).thenReturn(expectedCommentResponsePage);
 
         // Then
         MvcResult result = mockMvc.perform(get(END_POINT_PATH + "/{postTitle}/comments/all", postTitle))
@@ -109,9 +129,50 @@ class CommentControllerTest {
                 .andReturn();
 
         String responseJson = result.getResponse().getContentAsString();
-        List<CommentResponse> actualCommentResponseList = objectMapper.readValue(responseJson, new TypeReference<>() {
-        });
-        assertThat(expectedCommentResponseList).isEqualTo(actualCommentResponseList);
+        PageResponse<CommentResponse> actualCommentResponsePage = objectMapper.readValue(
+                responseJson, new TypeReference<>() {
+                }
+        );
+        assertThat(expectedCommentResponsePage).isEqualTo(actualCommentResponsePage);
+    }
+
+    @Test
+    void getAllCommentsWithCursorAndSize() throws Exception {
+        // Given
+        String cursor = "cursor";
+        PageResponse<CommentResponse> expectedCommentResponsePage = new PageResponse<>(List.of(commentResponse), null);
+
+        // When
+        when(commentService.getAllComments(postTitle, cursor, 5)).thenReturn(expectedCommentResponsePage);
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/{postTitle}/comments/all", postTitle)
+                        .param("cursor", cursor)
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].content").value(commentResponse.getContent()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void getAllCommentsShouldReturnETag() throws Exception {
+        // When
+        when(commentService.getAllComments(postTitle, null, 20)).thenReturn(new PageResponse<>(List.of(commentResponse), null));
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/{postTitle}/comments/all", postTitle))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"page\""));
+    }
+
+    @Test
+    void getAllCommentsNotModified() throws Exception {
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/{postTitle}/comments/all", postTitle)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"page\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(commentService, never()).getAllComments(anyString(), any(), anyInt());
     }
 
     @Test
@@ -120,11 +181,10 @@ class CommentControllerTest {
         commentRequest.setContent("New Content");
 
         // When
-        when(commentService.updateComment(postTitle, commentId, commentRequest, jwtToken)).thenReturn(commentResponse);
+        when(commentService.updateComment(postTitle, commentId, commentRequest, author)).thenReturn(commentResponse);
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/{postTitle}/comments/{commentId}/update", postTitle, commentId)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(commentRequest)))
                 .andExpect(status().isOk())
@@ -140,11 +200,10 @@ class CommentControllerTest {
         String response = "comment deleted";
 
         // When
-        when(commentService.deleteComment(postTitle, commentId, jwtToken)).thenReturn(response);
+        when(commentService.deleteComment(postTitle, commentId, author)).thenReturn(response);
 
         // Then
-        mockMvc.perform(delete(END_POINT_PATH + "/{postTitle}/comments/{commentId}/delete", postTitle, commentId)
-                .header("Authorization", jwtToken))
+        mockMvc.perform(delete(END_POINT_PATH + "/{postTitle}/comments/{commentId}/delete", postTitle, commentId))
                 .andExpect(status().isOk())
                 .andExpect(content().string(response));
     }
@@ -1,10 +1,18 @@
 package com.example.blog.controller;
 
+import com.example.blog.dto.PageResponse;
 import com.example.blog.dto.PostRequest;
 import com.example.blog.dto.PostResponse;
+import com.example.blog.dto.PostSearchResponse;
+import com.example.blog.dto.PostSummaryResponse;
 import com.example.blog.dto.PostUpdateRequest;
+import com.example.blog.dto.PostView;
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
 import com.example.blog.security.JwtService;
+import com.example.blog.service.ContentVersion;
 import com.example.blog.service.PostService;
+import com.example.blog.service.VersionedPost;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,16 +21,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,11 +62,18 @@ class PostControllerTest {
 
     private PostResponse postResponse;
     private String postTitle;
-    private final String jwtToken = "token";
+    private ContentVersion postVersion;
+    private final User author = User.builder().email("john_evans@gmail.com").role(Role.USER).build();
     private static final String END_POINT_PATH = "/api/v1/posts";
 
     @BeforeEach
     void setUp() {
+        //Filters are turned off, so we authenticate the user ourselves (just like JwtAuthenticationFilter would)
+        //and controllers get him through @AuthenticationPrincipal
+        TestSecurityContextHolder.setAuthentication(
+                new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities())
+        );
+
         postResponse = PostResponse.builder()
                 .title("Test")
                 .content("test")
@@ -60,6 +84,11 @@ class PostControllerTest {
                 .build();
 
         postTitle = "Test";
+
+        postVersion = new ContentVersion("1-3", LocalDateTime.of(2023, 5, 1, 12, 0));
+        when(postService.getPost(postTitle)).thenReturn(new VersionedPost(postResponse, postVersion));
+        when(postService.getAllPostsVersion(any(), anyInt(), eq(PostView.FULL))).thenReturn(new ContentVersion("full", null));
+        when(postService.getAllPostsVersion(any(), anyInt(), eq(PostView.SUMMARY))).thenReturn(new ContentVersion("summary", null));
     }
 
     @Test
@@ -73,11 +102,10 @@ class PostControllerTest {
                 .build();
 
         // When
-        when(postService.createPost(postRequest, jwtToken)).thenReturn(postResponse);
+        when(postService.createPost(postRequest, author)).thenReturn(postResponse);
 
         // Then
         mockMvc.perform(post(END_POINT_PATH + "/create")
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(postRequest)))
                 .andExpect(status().isCreated())
@@ -91,9 +119,6 @@ class PostControllerTest {
 
     @Test
     void getPost() throws Exception {
-        // When
-        when(postService.getPost(postTitle)).thenReturn(postResponse);
-
         // Then
         mockMvc.perform(get(END_POINT_PATH + "/{postTitle}", postTitle))
                 .andExpect(status().isOk())
@@ -105,13 +130,87 @@ class PostControllerTest {
                 .andExpect(jsonPath("$.updatedAt").value(postResponse.getUpdatedAt().toString()));
     }
 
+    @Test
+    void getPostShouldReturnETagAndLastModified() throws Exception {
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/{postTitle}", postTitle))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, postVersion.getLastModifiedMillis()));
+    }
+
+    @Test
+    void getPostWithMatchingETagShouldReturnNotModified() throws Exception {
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/{postTitle}", postTitle)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getPostWithOldETagShouldReturnPost() throws Exception {
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/{postTitle}", postTitle)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(postResponse.getTitle()));
+    }
+
+    @Test
+    void getPostNotModifiedSinceShouldReturnNotModified() throws Exception {
+        // Given
+        String ifModifiedSince = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.of(postVersion.getLastModified(), ZoneId.systemDefault())
+        );
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/{postTitle}", postTitle)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getAllPostsNotModified() throws Exception {
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/all")
+                        .param("view", "summary")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"summary\""))
+                .andExpect(status().isNotModified());
+        verify(postService, never()).getAllPosts(any(), anyInt());
+        verify(postService, never()).getAllPostSummaries(any(), anyInt());
+    }
+
+    @Test
+    void getAllPostsFullAndSummaryViewShouldHaveDifferentETags() throws Exception {
+        // When
+        when(postService.getAllPosts(null, 20)).thenReturn(new PageResponse<>(List.of(postResponse), null));
+        when(postService.getAllPostSummaries(null, 20)).thenReturn(new PageResponse<>(List.of(), null));
+
+        String fullETag = mockMvc.perform(get(END_POINT_PATH + "/all"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String summaryETag = mockMvc.perform(get(END_POINT_PATH + "/all").param("view", "summary"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Then
+        assertThat(fullETag).isNotEqualTo(summaryETag);
+        //Client which has the summary page and asks for the full one gets the full page, not 304
+        mockMvc.perform(get(END_POINT_PATH + "/all")
+                        .header(HttpHeaders.IF_NONE_MATCH, summaryETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].content").value(postResponse.getContent()));
+    }
+
     @Test
     void getAllPosts() throws Exception {
         // Given
-        List<PostResponse> expectedPostResponseList = Collections.singletonList(postResponse);
+        PageResponse<PostResponse> expectedPostResponsePage = new PageResponse<>(
+                Collections.singletonList(postResponse), "next"
+        );
 
         // When
-        when(postService.getAllPosts()).thenReturn(List.of(postResponse));
+        when(postService.getAllPosts(null, 20)).thenReturn(expectedPostResponsePage);
 
         // Then
         MvcResult result = mockMvc.perform(get(END_POINT_PATH + "/all"))
@@ -119,11 +218,54 @@ class PostControllerTest {
                 .andReturn();
 
         String responseJson = result.getResponse().getContentAsString();
-        List<PostResponse> actualPostResponseList = objectMapper.readValue(
+        PageResponse<PostResponse> actualPostResponsePage = objectMapper.readValue(
                 responseJson, new TypeReference<>() {
                 }
         );
-        assertThat(expectedPostResponseList).isEqualTo(actualPostResponseList);
+        assertThat(expectedPostResponsePage).isEqualTo(actualPostResponsePage);
+    }
+
+    @Test
+    void getAllPostsWithCursorAndSize() throws Exception {
+        // Given
+        String cursor = "cursor";
+        PageResponse<PostResponse> expectedPostResponsePage = new PageResponse<>(List.of(postResponse), null);
+
+        // When
+        when(postService.getAllPosts(cursor, 5)).thenReturn(expectedPostResponsePage);
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/all")
+                        .param("cursor", cursor)
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value(postResponse.getTitle()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void getAllPostsSummaryView() throws Exception {
+        // Given
+        PostSummaryResponse postSummaryResponse = PostSummaryResponse.builder()
+                .title(postResponse.getTitle())
+                .excerpt(postResponse.getContent())
+                .categories(postResponse.getCategories())
+                .tags(postResponse.getTags())
+                .createdAt(postResponse.getCreatedAt())
+                .updatedAt(postResponse.getUpdatedAt())
+                .build();
+        PageResponse<PostSummaryResponse> expectedPostSummaryPage = new PageResponse<>(List.of(postSummaryResponse), null);
+
+        // When
+        when(postService.getAllPostSummaries(null, 20)).thenReturn(expectedPostSummaryPage);
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/all")
+                        .param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value(postSummaryResponse.getTitle()))
+                .andExpect(jsonPath("$.content[0].excerpt").value(postSummaryResponse.getExcerpt()))
+                .andExpect(jsonPath("$.content[0].content").doesNotExist());
     }
 
     @Test
@@ -138,11 +280,10 @@ class PostControllerTest {
         postResponse.setContent(updateRequest.getContent());
 
         // When
-        when(postService.updatePost(postTitle, updateRequest, jwtToken)).thenReturn(postResponse);
+        when(postService.updatePost(postTitle, updateRequest, author)).thenReturn(postResponse);
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/update/{postTitle}", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updateRequest)))
                 .andExpect(jsonPath("$.title").value(postResponse.getTitle()))
@@ -159,11 +300,10 @@ class PostControllerTest {
         String response = "Post with the title '" + postTitle + "' deleted";
 
         // When
-        when(postService.deletePost(postTitle, jwtToken)).thenReturn(response);
+        when(postService.deletePost(postTitle, author)).thenReturn(response);
 
         // Then
         mockMvc.perform(delete(END_POINT_PATH + "/{postTitle}", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().string(response));
@@ -173,10 +313,12 @@ class PostControllerTest {
     void getAllPostsByCategory() throws Exception {
         // Given
         String categoryName = "category";
-        List<PostResponse> expectedPostResponseList = Collections.singletonList(postResponse);
+        PageResponse<PostResponse> expectedPostResponsePage = new PageResponse<>(
+                Collections.singletonList(postResponse), null
+        );
 
         // When
-        when(postService.getAllPostsByCategory(categoryName)).thenReturn(List.of(postResponse));
+        when(postService.getAllPostsByCategory(categoryName, null, 20)).thenReturn(expectedPostResponsePage);
 
         // Then
         MvcResult result = mockMvc.perform(get(END_POINT_PATH + "/all-by-category")
@@ -185,21 +327,23 @@ class PostControllerTest {
                 .andReturn();
 
         String responseJson = result.getResponse().getContentAsString();
-        List<PostResponse> actualPostResponseList = objectMapper.readValue(
+        PageResponse<PostResponse> actualPostResponsePage = objectMapper.readValue(
                 responseJson, new TypeReference<>() {
                 }
         );
-        assertThat(expectedPostResponseList).isEqualTo(actualPostResponseList);
+        assertThat(expectedPostResponsePage).isEqualTo(actualPostResponsePage);
     }
 
     @Test
     void getAllPostsByTag() throws Exception {
         // Given
         String tagName = "tag";
-        List<PostResponse> expectedPostResponseList = Collections.singletonList(postResponse);
+        PageResponse<PostResponse> expectedPostResponsePage = new PageResponse<>(
+                Collections.singletonList(postResponse), null
+        );
 
         // When
-        when(postService.getAllPostsByTag(tagName)).thenReturn(List.of(postResponse));
+        when(postService.getAllPostsByTag(tagName, null, 20)).thenReturn(expectedPostResponsePage);
 
         // Then
         MvcResult result = mockMvc.perform(get(END_POINT_PATH + "/all-by-tag")
@@ -208,10 +352,36 @@ class PostControllerTest {
                 .andReturn();
 
         String responseJson = result.getResponse().getContentAsString();
-        List<PostResponse> actualPostResponseList = objectMapper.readValue(
+        PageResponse<PostResponse> actualPostResponsePage = objectMapper.readValue(
                 responseJson, new TypeReference<>() {
                 }
         );
-        assertThat(expectedPostResponseList).isEqualTo(actualPostResponseList);
+        assertThat(expectedPostResponsePage).isEqualTo(actualPostResponsePage);
+    }
+
+    @Test
+    void searchPosts() throws Exception {
+        // Given
+        PostSearchResponse searchResponse = PostSearchResponse.builder()
+                .title(postResponse.getTitle())
+                .snippet("<b>test</b>")
+                .categories(postResponse.getCategories())
+                .tags(postResponse.getTags())
+                .createdAt(postResponse.getCreatedAt())
+                .updatedAt(postResponse.getUpdatedAt())
+                .build();
+        PageResponse<PostSearchResponse> expectedSearchPage = new PageResponse<>(List.of(searchResponse), "20");
+
+        // When
+        when(postService.searchPosts("test", "category", null, null, 20)).thenReturn(expectedSearchPage);
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/search")
+                        .param("query", "test")
+                        .param("categoryName", "category"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value(searchResponse.getTitle()))
+                .andExpect(jsonPath("$.content[0].snippet").value(searchResponse.getSnippet()))
+                .andExpect(jsonPath("$.next").value("20"));
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,9 @@
 package com.example.blog.controller;
 
 import com.example.blog.dto.TagDto;
+import com.example.blog.dto.NameCountResponse;
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
 import com.example.blog.security.JwtService;
 import com.example.blog.service.TagService;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -12,6 +15,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -44,11 +49,17 @@ class TagControllerTest {
     private TagDto tagDto;
     private String tagName;
     private String postTitle;
-    private final String jwtToken = "token";
+    private final User author = User.builder().email("john_evans@gmail.com").role(Role.USER).build();
     private static final String END_POINT_PATH = "/api/v1/posts";
 
     @BeforeEach
     void setUp() {
+        //Filters are turned off, so we authenticate the user ourselves (just like JwtAuthenticationFilter would)
+        //and controllers get him through @AuthenticationPrincipal
+        TestSecurityContextHolder.setAuthentication(
+                new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities())
+        );
+
         tagDto = TagDto.builder().name("tag").build();
 
         tagName = "tag";
@@ -63,7 +74,6 @@ class TagControllerTest {
 
         // Then
         mockMvc.perform(post(END_POINT_PATH + "/tags/create")
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(tagDto)))
                 .andExpect(status().isCreated())
@@ -81,7 +91,6 @@ class TagControllerTest {
 
         // Then
         MvcResult result = mockMvc.perform(post(END_POINT_PATH + "/tags/create-multi")
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(List.of(tagDto, tagDto2))))
                 .andExpect(status().isCreated())
@@ -109,6 +118,38 @@ class TagControllerTest {
                 .andExpect(content().string(response));
     }
 
+    @Test
+    void autocompleteTags() throws Exception {
+        // Given
+        NameCountResponse name = new NameCountResponse(tagDto.getName(), 3);
+
+        // When
+        when(tagService.autocompleteTags("ta", 10)).thenReturn(List.of(name));
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/tags/autocomplete")
+                        .param("prefix", "ta"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(name.getName()))
+                .andExpect(jsonPath("$[0].postCount").value(name.getPostCount()));
+    }
+
+    @Test
+    void getPopularTags() throws Exception {
+        // Given
+        NameCountResponse name = new NameCountResponse(tagDto.getName(), 3);
+
+        // When
+        when(tagService.getPopularTags(5)).thenReturn(List.of(name));
+
+        // Then
+        mockMvc.perform(get(END_POINT_PATH + "/tags/popular")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(name.getName()))
+                .andExpect(jsonPath("$[0].postCount").value(name.getPostCount()));
+    }
+
     @Test
     void getAllTags() throws Exception {
         // Given
@@ -138,7 +179,6 @@ class TagControllerTest {
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/tags/update/{tagName}", tagName)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(tagDto)))
                 .andExpect(status().isOk())
@@ -154,8 +194,7 @@ class TagControllerTest {
         when(tagService.deleteTag(tagName)).thenReturn(response);
 
         // Then
-        mockMvc.perform(delete(END_POINT_PATH + "/tags/delete/{tagName}", tagName)
-                .header("Authorization", jwtToken))
+        mockMvc.perform(delete(END_POINT_PATH + "/tags/delete/{tagName}", tagName))
                 .andExpect(status().isOk())
                 .andExpect(content().string(response));
     }
@@ -166,11 +205,10 @@ class TagControllerTest {
         String response = "tag added";
 
         // When
-        when(tagService.addTagToPost(postTitle, tagDto, jwtToken)).thenReturn(response);
+        when(tagService.addTagToPost(postTitle, tagDto, author)).thenReturn(response);
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/{postTitle}/tags/add", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(tagDto)))
                 .andExpect(status().isOk())
@@ -183,11 +221,10 @@ class TagControllerTest {
         String response = "All tags added to the post '" + postTitle + "'";
 
         // When
-        when(tagService.addTagToPost(postTitle, tagDto, jwtToken)).thenReturn(response);
+        when(tagService.addTagsToPost(postTitle, List.of(tagDto), author)).thenReturn(response);
 
         // Then
         mockMvc.perform(put(END_POINT_PATH + "/{postTitle}/tags/add-multi", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(List.of(tagDto))))
                 .andExpect(status().isOk())
@@ -200,11 +237,10 @@ class TagControllerTest {
         String response = "Category deleted from the post";
 
         // When
-        when(tagService.deleteTagFromPost(postTitle, tagDto, jwtToken)).thenReturn(response);
+        when(tagService.deleteTagFromPost(postTitle, tagDto, author)).thenReturn(response);
 
         // Then
         mockMvc.perform(delete(END_POINT_PATH + "/{postTitle}/tags/delete", postTitle)
-                .header("Authorization", jwtToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(tagDto)))
                 .andExpect(status().isOk())
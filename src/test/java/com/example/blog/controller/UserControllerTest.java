@@ -13,8 +13,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -53,16 +57,41 @@ class UserControllerTest {
         AuthenticationResponse response = new AuthenticationResponse(jwtToken);
 
         // When
-        when(userService.register(any(UserRegisterRequest.class))).thenReturn(response);
+        when(userService.register(any(UserRegisterRequest.class))).thenReturn(CompletableFuture.completedFuture(response));
 
         // Then
-        mockMvc.perform(post(END_POINT_PATH + "/register")
+        //Registration is asynchronous, so the response is sent by the async dispatch
+        MvcResult result = mockMvc.perform(post(END_POINT_PATH + "/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.token").value(jwtToken));
     }
 
+    @Test
+    void registerWithDifferentPasswordsShouldReturnBadRequest() throws Exception {
+        // Given
+        UserRegisterRequest registerRequest = UserRegisterRequest.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .repeatPassword("Pass.123")
+                .build();
+
+        // Then
+        mockMvc.perform(post(END_POINT_PATH + "/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.repeatPassword").value("Passwords do not match, please try again!"));
+        verifyNoInteractions(userService);
+    }
+
     @Test
     void login() throws Exception {
         // Given
@@ -74,7 +103,7 @@ class UserControllerTest {
         AuthenticationResponse response = new AuthenticationResponse(jwtToken);
 
         // When
-        when(userService.login(loginRequest)).thenReturn(response);
+        when(userService.login(loginRequest, "127.0.0.1")).thenReturn(response);
 
         // Then
         mockMvc.perform(post(END_POINT_PATH + "/login")
@@ -83,4 +112,20 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value(jwtToken));
     }
-}
\ No newline at end of file
+
+    @Test
+    void loginWithoutEmailShouldReturnBadRequest() throws Exception {
+        // Given
+        UserLoginRequest loginRequest = UserLoginRequest.builder()
+                .password("Test.123")
+                .build();
+
+        // Then
+        mockMvc.perform(post(END_POINT_PATH + "/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.email").value("Email should not be blank"));
+        verifyNoInteractions(userService);
+    }
+}
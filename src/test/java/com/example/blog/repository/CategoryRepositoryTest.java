@@ -1,13 +1,16 @@
 package com.example.blog.repository;
 
 import com.example.blog.entity.Category;
+import com.example.blog.projection.NameCountView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -51,21 +54,37 @@ class CategoryRepositoryTest {
     @Test
     void testFindByNameShouldReturnCategory() {
         // When
-        Category expected = categoryRepository.findByName(category.getName());
+        Optional<Category> expected = categoryRepository.findByName(category.getName());
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected).isPresent();
     }
 
     @Test
-    void testDeleteByNameShouldReturnVoid() {
+    void testFindByNameShouldReturnEmpty() {
+        // When
+        Optional<Category> expected = categoryRepository.findByName("Fail");
+
+        // Then
+        assertThat(expected).isEmpty();
+    }
+
+    @Test
+    void testFindPopularShouldReturnCategoriesWithMostPostsFirst() {
         // Given
-        categoryRepository.deleteByName(category.getName());
+        categoryRepository.save(Category.builder().name("other").build());
+        categoryRepository.flush();
+        categoryRepository.addToPostCount(List.of(category.getName(), "other"), 1);
+        categoryRepository.addToPostCount(List.of("other"), 1);
 
         // When
-        Optional<Category> expected = categoryRepository.findById(category.getId());
+        List<NameCountView> expected = categoryRepository.findPopular(PageRequest.of(0, 10));
 
         // Then
-        assertThat(expected).isEmpty();
+        assertThat(expected.size()).isEqualTo(2);
+        assertThat(expected.get(0).getName()).isEqualTo("other");
+        assertThat(expected.get(0).getPostCount()).isEqualTo(2);
+        assertThat(expected.get(1).getName()).isEqualTo(category.getName());
+        assertThat(expected.get(1).getPostCount()).isEqualTo(1);
     }
-}
\ No newline at end of file
+}
@@ -4,15 +4,19 @@ import com.example.blog.entity.Comment;
 import com.example.blog.entity.Post;
 import com.example.blog.entity.Role;
 import com.example.blog.entity.User;
+import com.example.blog.projection.CommentView;
+import com.example.blog.service.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -40,7 +44,6 @@ class CommentRepositoryTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
         userRepository.save(user);
@@ -65,71 +68,106 @@ class CommentRepositoryTest {
     }
 
     @Test
-    void testExistsByIdAndPostShouldReturnTrue() {
+    void testFindByIdAndPostShouldReturnComment() {
         // When
-        boolean expected = commentRepository.existsByIdAndPost(comment.getId(), post);
+        Optional<Comment> expected = commentRepository.findByIdAndPost(comment.getId(), post);
 
         // Then
-        assertThat(expected).isTrue();
+        assertThat(expected).isPresent();
     }
 
     @Test
-    void testExistsByIdAndPostShouldReturnFalse() {
+    void testFindByIdAndPostShouldReturnEmpty() {
         // Given
         Long idToFail = 10L;
 
         // When
-        boolean expected = commentRepository.existsByIdAndPost(idToFail, post);
+        Optional<Comment> expected = commentRepository.findByIdAndPost(idToFail, post);
 
         // Then
-        assertThat(expected).isFalse();
+        assertThat(expected).isEmpty();
     }
 
     @Test
-    void testFindByIdAndPostShouldReturnComment() {
+    void testFindPageByPostIdFirstPageShouldReturnNewestCommentsWithUserEmail() {
+        // Given
+        Comment newerComment = saveComment(comment.getCreatedAt().plusMinutes(1).withNano(0));
+
         // When
-        Comment expected = commentRepository.findByIdAndPost(comment.getId(), post);
+        List<CommentView> expected = commentRepository.findPageByPostId(
+                post.getId(), PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 1)
+        );
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.get(0).getId()).isEqualTo(newerComment.getId());
+        assertThat(expected.get(0).getUserName()).isEqualTo(user.getEmail());
+        assertThat(expected.get(0).getContent()).isEqualTo(newerComment.getContent());
     }
 
     @Test
-    void testFindAllByPostShouldReturnCommentList() {
+    void testFindPageByPostIdShouldReturnCommentsOlderThanCursor() {
+        // Given
+        Comment newerComment = saveComment(comment.getCreatedAt().plusMinutes(1).withNano(0));
+
         // When
-        List<Comment> expected = commentRepository.findAllByPost(post);
+        List<CommentView> expected = commentRepository.findPageByPostId(
+                post.getId(), newerComment.getCreatedAt(), newerComment.getId(), PageRequest.of(0, 10)
+        );
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.get(0).getId()).isEqualTo(comment.getId());
     }
 
     @Test
-    void testExistsByIdAndPostAndUserShouldReturnTrue() {
+    void testFindPageByPostIdShouldNotReturnCommentsOfOtherPosts() {
+        // Given
+        Post otherPost = postRepository.save(Post.builder()
+                .title("Other")
+                .content("test")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .user(user)
+                .build());
+
         // When
-        boolean expected = commentRepository.existsByIdAndPostAndUser(comment.getId(), post, user);
+        List<CommentView> expected = commentRepository.findPageByPostId(
+                otherPost.getId(), PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 10)
+        );
 
         // Then
-        assertThat(expected).isTrue();
+        assertThat(expected.isEmpty()).isTrue();
     }
 
     @Test
-    void testExistsByIdAndPostAndUserShouldReturnFalse() {
-        // Given
-        Long idToFail = 10L;
-
+    void testFindByIdAndPostAndUserShouldReturnComment() {
         // When
-        boolean expected = commentRepository.existsByIdAndPostAndUser(idToFail, post, user);
+        Optional<Comment> expected = commentRepository.findByIdAndPostAndUser(comment.getId(), post, user);
 
         // Then
-        assertThat(expected).isFalse();
+        assertThat(expected).isPresent();
     }
 
     @Test
-    void testFindByIdAndPostAndUserShouldReturnComment() {
+    void testFindByIdAndPostAndUserShouldReturnEmpty() {
+        // Given
+        Long idToFail = 10L;
+
         // When
-        Comment expected = commentRepository.findByIdAndPostAndUser(comment.getId(), post, user);
+        Optional<Comment> expected = commentRepository.findByIdAndPostAndUser(idToFail, post, user);
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected).isEmpty();
+    }
+
+    private Comment saveComment(LocalDateTime createdAt) {
+        return commentRepository.save(Comment.builder()
+                .content("Newer comment")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .user(user)
+                .post(post)
+                .build());
     }
-}
\ No newline at end of file
+}
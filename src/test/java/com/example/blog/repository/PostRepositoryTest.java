@@ -1,19 +1,25 @@
 package com.example.blog.repository;
 
-import com.example.blog.entity.Post;
-import com.example.blog.entity.Role;
-import com.example.blog.entity.User;
+import com.example.blog.entity.*;
+import com.example.blog.projection.PostSummaryView;
+import com.example.blog.projection.PostVersionView;
+import com.example.blog.service.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
@@ -25,6 +31,21 @@ class PostRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PostCategoryRepository postCategoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
     private Post post;
     private User user;
 
@@ -35,7 +56,6 @@ class PostRepositoryTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
         userRepository.save(user);
@@ -74,51 +94,385 @@ class PostRepositoryTest {
     @Test
     void testFindByTitleAndUserShouldReturnPost() {
         // When
-        Post expected = postRepository.findByTitleAndUser(post.getTitle(), user);
+        Optional<Post> expected = postRepository.findByTitleAndUser(post.getTitle(), user);
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected).isPresent();
     }
 
     @Test
-    void testExistsByTitleShouldReturnTrue() {
+    void testFindIdByTitleAndUserShouldReturnIdOfPost() {
         // When
-        boolean expected = postRepository.existsByTitle(post.getTitle());
+        Optional<Long> expected = postRepository.findIdByTitleAndUser(post.getTitle(), user);
 
         // Then
-        assertThat(expected).isTrue();
+        assertThat(expected).contains(post.getId());
     }
 
     @Test
-    void testExistsByTitleShouldReturnFalse() {
+    void testFindIdByTitleAndUserOfOtherUserShouldReturnEmpty() {
         // Given
-        String titleToFail = "Fail";
+        User otherUser = userRepository.save(User.builder()
+                .firstName("Jane")
+                .lastName("Evans")
+                .email("jane_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
 
         // When
-        boolean expected = postRepository.existsByTitle(titleToFail);
+        Optional<Long> expected = postRepository.findIdByTitleAndUser(post.getTitle(), otherUser);
 
         // Then
-        assertThat(expected).isFalse();
+        assertThat(expected).isEmpty();
+    }
+
+    @Test
+    void testDeleteByTitleAndUserShouldReturnNumberOfDeletedPosts() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        int deleted = postRepository.deleteByTitleAndUser(post.getTitle(), user);
+        int deletedAgain = postRepository.deleteByTitleAndUser(post.getTitle(), user);
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isEqualTo(0);
+        assertThat(postRepository.findByTitle(post.getTitle())).isEmpty();
     }
 
     @Test
     void testFindByTitleShouldReturnPost() {
         // When
-        Post expected = postRepository.findByTitle(post.getTitle());
+        Optional<Post> expected = postRepository.findByTitle(post.getTitle());
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected).isPresent();
     }
 
     @Test
-    void testDeleteByTitleAndUserShouldReturnVoid() {
+    void testFindByTitleShouldReturnEmpty() {
         // Given
-        postRepository.deleteByTitleAndUser(post.getTitle(), user);
+        String titleToFail = "Fail";
 
         // When
-        Optional<Post> expected = postRepository.findById(post.getId());
+        Optional<Post> expected = postRepository.findByTitle(titleToFail);
 
         // Then
         assertThat(expected).isEmpty();
     }
+
+    @Test
+    void testSaveNewPostShouldHaveFirstVersion() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Post expected = postRepository.findByTitle(post.getTitle()).orElseThrow();
+
+        // Then
+        assertThat(expected.getVersion()).isZero();
+        assertThat(expected.getModifiedAt()).isNotNull();
+    }
+
+    @Test
+    void testTouchByIdShouldIncrementVersionAndSetModifiedAt() {
+        // Given
+        //Post of other user with the same title must not be touched
+        User otherUser = userRepository.save(User.builder()
+                .firstName("Jane")
+                .lastName("Evans")
+                .email("jane_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+        Post otherPost = postRepository.save(Post.builder()
+                .title(post.getTitle())
+                .content("test")
+                .createdAt(post.getCreatedAt())
+                .updatedAt(post.getCreatedAt())
+                .user(otherUser)
+                .build());
+        LocalDateTime modifiedAt = LocalDateTime.now().plusMinutes(1).withNano(0);
+
+        // When
+        int expected = postRepository.touchById(post.getId(), modifiedAt);
+
+        // Then
+        assertThat(expected).isEqualTo(1);
+        //Bulk update does not touch the persistence context, so posts are loaded again
+        entityManager.clear();
+        Post touched = postRepository.findById(post.getId()).orElseThrow();
+        assertThat(touched.getVersion()).isEqualTo(1);
+        assertThat(touched.getModifiedAt()).isEqualTo(modifiedAt);
+        assertThat(postRepository.findById(otherPost.getId()).orElseThrow().getVersion()).isZero();
+    }
+
+    @Test
+    void testTouchByTagIdShouldIncrementVersionOfPostsWithThatTag() {
+        // Given
+        Post otherPost = savePost("Without tag", post.getCreatedAt());
+        Tag tag = tagRepository.save(Tag.builder().name("tag").build());
+        entityManager.persist(PostTag.builder()
+                .postTagId(new PostTagId(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build());
+        entityManager.flush();
+
+        // When
+        int expected = postRepository.touchByTagId(tag.getId(), LocalDateTime.now());
+
+        // Then
+        assertThat(expected).isEqualTo(1);
+        entityManager.clear();
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getVersion()).isEqualTo(1);
+        assertThat(postRepository.findById(otherPost.getId()).orElseThrow().getVersion()).isZero();
+    }
+
+    @Test
+    void testTouchByCategoryIdShouldIncrementVersionOfPostsWithThatCategory() {
+        // Given
+        Post otherPost = savePost("Without category", post.getCreatedAt());
+        Category category = categoryRepository.save(Category.builder().name("category").build());
+        entityManager.persist(PostCategory.builder()
+                .postCategoryId(new PostCategoryId(post.getId(), category.getId()))
+                .post(post)
+                .category(category)
+                .build());
+        entityManager.flush();
+
+        // When
+        int expected = postRepository.touchByCategoryId(category.getId(), LocalDateTime.now());
+
+        // Then
+        assertThat(expected).isEqualTo(1);
+        entityManager.clear();
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getVersion()).isEqualTo(1);
+        assertThat(postRepository.findById(otherPost.getId()).orElseThrow().getVersion()).isZero();
+    }
+
+    @Test
+    void testFindVersionPageShouldReturnSamePostsAsFindPage() {
+        // Given
+        savePost("Newer", post.getCreatedAt().plusMinutes(1).withNano(0));
+
+        // When
+        List<PostVersionView> expected = postRepository.findVersionPage(
+                PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 10)
+        );
+
+        // Then
+        List<Post> posts = postRepository.findPage(
+                PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 10)
+        );
+        assertThat(expected.stream().map(PostVersionView::getId).toList())
+                .isEqualTo(posts.stream().map(Post::getId).toList());
+    }
+
+    @Test
+    void testFindPageFirstPageShouldReturnNewestPostsFirst() {
+        // Given
+        Post newerPost = savePost("Newer", post.getCreatedAt().plusMinutes(1).withNano(0));
+
+        // When
+        List<Post> expected = postRepository.findPage(
+                PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 1)
+        );
+
+        // Then
+        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.get(0).getTitle()).isEqualTo(newerPost.getTitle());
+    }
+
+    @Test
+    void testFindPageShouldReturnPostsOlderThanCursor() {
+        // Given
+        Post newerPost = savePost("Newer", post.getCreatedAt().plusMinutes(1).withNano(0));
+
+        // When
+        List<Post> expected = postRepository.findPage(
+                newerPost.getCreatedAt(), newerPost.getId(), PageRequest.of(0, 10)
+        );
+
+        // Then
+        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.get(0).getTitle()).isEqualTo(post.getTitle());
+    }
+
+    @Test
+    void testFindPageSameCreatedAtShouldReturnPostsWithSmallerId() {
+        // Given
+        LocalDateTime createdAt = post.getCreatedAt().plusMinutes(1).withNano(0);
+        Post firstPost = savePost("First", createdAt);
+        Post secondPost = savePost("Second", createdAt);
+
+        // When
+        List<Post> expected = postRepository.findPage(
+                secondPost.getCreatedAt(), secondPost.getId(), PageRequest.of(0, 10)
+        );
+
+        // Then
+        assertThat(expected.size()).isEqualTo(2);
+        assertThat(expected.get(0).getTitle()).isEqualTo(firstPost.getTitle());
+        assertThat(expected.get(1).getTitle()).isEqualTo(post.getTitle());
+    }
+
+    @Test
+    void testFindPageByCategoryShouldReturnOnlyPostsWithThatCategory() {
+        // Given
+        Post newerPost = savePost("Newer", post.getCreatedAt().plusMinutes(1).withNano(0));
+        savePost("Without category", post.getCreatedAt().plusMinutes(2).withNano(0));
+        Category category = Category.builder().name("category").build();
+        categoryRepository.save(category);
+        for (Post postToAdd : List.of(post, newerPost)) {
+            entityManager.persist(PostCategory.builder()
+                    .postCategoryId(new PostCategoryId(postToAdd.getId(), category.getId()))
+                    .post(postToAdd)
+                    .category(category)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Post> firstPage = postRepository.findPageByCategory(
+                category, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 1)
+        );
+        List<Post> secondPage = postRepository.findPageByCategory(
+                category, newerPost.getCreatedAt(), newerPost.getId(), PageRequest.of(0, 1)
+        );
+
+        // Then
+        assertThat(firstPage.get(0).getTitle()).isEqualTo(newerPost.getTitle());
+        assertThat(secondPage.get(0).getTitle()).isEqualTo(post.getTitle());
+    }
+
+    @Test
+    void testFindPageByTagShouldReturnOnlyPostsWithThatTag() {
+        // Given
+        Post newerPost = savePost("Newer", post.getCreatedAt().plusMinutes(1).withNano(0));
+        savePost("Without tag", post.getCreatedAt().plusMinutes(2).withNano(0));
+        Tag tag = Tag.builder().name("tag").build();
+        tagRepository.save(tag);
+        for (Post postToAdd : List.of(post, newerPost)) {
+            entityManager.persist(PostTag.builder()
+                    .postTagId(new PostTagId(postToAdd.getId(), tag.getId()))
+                    .post(postToAdd)
+                    .tag(tag)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Post> firstPage = postRepository.findPageByTag(
+                tag, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 1)
+        );
+        List<Post> secondPage = postRepository.findPageByTag(
+                tag, newerPost.getCreatedAt(), newerPost.getId(), PageRequest.of(0, 1)
+        );
+
+        // Then
+        assertThat(firstPage.get(0).getTitle()).isEqualTo(newerPost.getTitle());
+        assertThat(secondPage.get(0).getTitle()).isEqualTo(post.getTitle());
+    }
+
+    @Test
+    void testFindSummaryPageShouldReturnExcerptOfContent() {
+        // Given
+        Post longPost = savePost("Long", post.getCreatedAt().plusMinutes(1).withNano(0));
+        longPost.setContent("a".repeat(PostRepository.EXCERPT_LENGTH * 5));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<PostSummaryView> expected = postRepository.findSummaryPage(
+                PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 10)
+        );
+
+        // Then
+        assertThat(expected.size()).isEqualTo(2);
+        assertThat(expected.get(0).getId()).isEqualTo(longPost.getId());
+        assertThat(expected.get(0).getTitle()).isEqualTo(longPost.getTitle());
+        assertThat(expected.get(0).getExcerpt()).isEqualTo("a".repeat(PostRepository.EXCERPT_LENGTH));
+        assertThat(expected.get(1).getExcerpt()).isEqualTo(post.getContent());
+    }
+
+    @Test
+    void testFindSummaryPageByCategoryShouldReturnOnlyPostsWithThatCategory() {
+        // Given
+        savePost("Without category", post.getCreatedAt().plusMinutes(1).withNano(0));
+        Category category = Category.builder().name("category").build();
+        categoryRepository.save(category);
+        entityManager.persist(PostCategory.builder()
+                .postCategoryId(new PostCategoryId(post.getId(), category.getId()))
+                .post(post)
+                .category(category)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<PostSummaryView> expected = postRepository.findSummaryPageByCategory(
+                category, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 10)
+        );
+
+        // Then
+        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.get(0).getTitle()).isEqualTo(post.getTitle());
+    }
+
+    @Test
+    void testFindSummaryPageByTagShouldReturnOnlyPostsWithThatTag() {
+        // Given
+        savePost("Without tag", post.getCreatedAt().plusMinutes(1).withNano(0));
+        Tag tag = Tag.builder().name("tag").build();
+        tagRepository.save(tag);
+        entityManager.persist(PostTag.builder()
+                .postTagId(new PostTagId(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<PostSummaryView> expected = postRepository.findSummaryPageByTag(
+                tag, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 10)
+        );
+
+        // Then
+        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.get(0).getTitle()).isEqualTo(post.getTitle());
+    }
+
+    @Test
+    void testSavePostWithExistingTitleOfSameUserShouldThrowDataIntegrityViolationException() {
+        // Given
+        Post duplicate = Post.builder()
+                .title(post.getTitle())
+                .content("other")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .user(user)
+                .build();
+
+        // Then
+        assertThatThrownBy(() -> postRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private Post savePost(String title, LocalDateTime createdAt) {
+        return postRepository.save(Post.builder()
+                .title(title)
+                .content("test")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .user(user)
+                .build());
+    }
 }
\ No newline at end of file
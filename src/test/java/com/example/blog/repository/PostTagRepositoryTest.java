@@ -1,6 +1,7 @@
 package com.example.blog.repository;
 
 import com.example.blog.entity.*;
+import com.example.blog.projection.PostNameView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -39,7 +41,6 @@ class PostTagRepositoryTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
         userRepository.save(user);
@@ -89,10 +90,10 @@ class PostTagRepositoryTest {
     @Test
     void testFindByPostAndTagShouldReturnPostTag() {
         // When
-        PostTag expected = postTagRepository.findByPostAndTag(post, tag);
+        Optional<PostTag> expected = postTagRepository.findByPostAndTag(post, tag);
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected).isPresent();
     }
 
     @Test
@@ -112,4 +113,15 @@ class PostTagRepositoryTest {
         // Then
         assertThat(expected).isNotNull();
     }
+
+    @Test
+    void testFindNamesByPostIdsShouldReturnPostNameViewList() {
+        // When
+        List<PostNameView> expected = postTagRepository.findNamesByPostIds(List.of(post.getId()));
+
+        // Then
+        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.get(0).getPostId()).isEqualTo(post.getId());
+        assertThat(expected.get(0).getName()).isEqualTo(tag.getName());
+    }
 }
\ No newline at end of file
@@ -1,16 +1,24 @@
 package com.example.blog.repository;
 
 import com.example.blog.entity.Tag;
+import com.example.blog.projection.NameCountView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
@@ -19,6 +27,9 @@ class TagRepositoryTest {
     @Autowired
     private TagRepository tagRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Tag tag;
 
     @BeforeEach
@@ -58,23 +69,87 @@ class TagRepositoryTest {
     }
 
     @Test
-    void testFindTagByNameShouldReturnTag() {
+    void testFindByNameShouldReturnEmpty() {
         // When
-        Tag expected = tagRepository.findTagByName(tag.getName());
+        Optional<Tag> expected = tagRepository.findByName("Fail");
+
+        // Then
+        assertThat(expected).isEmpty();
+    }
+
+    @Test
+    void testSaveTagWithExistingNameShouldThrowDataIntegrityViolationException() {
+        // Given
+        Tag duplicate = Tag.builder().name(tag.getName()).build();
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThatThrownBy(() -> tagRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class);
     }
 
     @Test
-    void testDeleteByNameShouldReturnVoid() {
+    void testAddToPostCountShouldChangePostCountsOfTagsWithGivenNames() {
         // Given
-        tagRepository.deleteByName(tag.getName());
+        Tag otherTag = tagRepository.save(Tag.builder().name("other").build());
+        entityManager.flush();
 
         // When
-        Optional<Tag> expected = tagRepository.findById(tag.getId());
+        tagRepository.addToPostCount(List.of(tag.getName(), otherTag.getName()), 1);
+        tagRepository.addToPostCount(List.of(tag.getName()), 1);
+        tagRepository.addToPostCount(List.of(otherTag.getName()), -1);
+        entityManager.clear();
 
         // Then
-        assertThat(expected).isEmpty();
+        assertThat(tagRepository.findByName(tag.getName()).orElseThrow().getPostCount()).isEqualTo(2);
+        assertThat(tagRepository.findByName(otherTag.getName()).orElseThrow().getPostCount()).isEqualTo(0);
+    }
+
+    @Test
+    void testSaveTagShouldNotOverwritePostCount() {
+        // Given
+        entityManager.flush();
+        tagRepository.addToPostCount(List.of(tag.getName()), 1);
+
+        // When
+        //Tag in the persistence context still has the old count (0)
+        tag.setName("renamed");
+        tagRepository.saveAndFlush(tag);
+        entityManager.clear();
+
+        // Then
+        assertThat(tagRepository.findByName("renamed").orElseThrow().getPostCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindAllWithPostCountShouldReturnPostCountOfEveryTag() {
+        // Given
+        Tag unusedTag = tagRepository.save(Tag.builder().name("unused").build());
+        entityManager.flush();
+        tagRepository.addToPostCount(List.of(tag.getName()), 2);
+
+        // When
+        Map<String, Long> expected = tagRepository.findAllWithPostCount().stream()
+                .collect(Collectors.toMap(NameCountView::getName, NameCountView::getPostCount));
+
+        // Then
+        assertThat(expected).isEqualTo(Map.of(tag.getName(), 2L, unusedTag.getName(), 0L));
+    }
+
+    @Test
+    void testFindPopularShouldReturnTagsWithMostPostsFirst() {
+        // Given
+        tagRepository.save(Tag.builder().name("b").build());
+        tagRepository.save(Tag.builder().name("a").build());
+        entityManager.flush();
+        tagRepository.addToPostCount(List.of("a", "b"), 1);
+        tagRepository.addToPostCount(List.of("b"), 1);
+
+        // When
+        List<String> expected = tagRepository.findPopular(PageRequest.of(0, 2)).stream()
+                .map(NameCountView::getName)
+                .toList();
+
+        // Then
+        assertThat(expected).isEqualTo(List.of("b", "a"));
     }
-}
\ No newline at end of file
+}
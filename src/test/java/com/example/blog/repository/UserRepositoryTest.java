@@ -9,6 +9,8 @@ import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.util.Optional;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @DataJpaTest
@@ -27,7 +29,6 @@ class UserRepositoryTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
         userRepository.save(user);
@@ -64,11 +65,11 @@ class UserRepositoryTest {
     }
 
     @Test
-    void testFindUserByEmailShouldReturnUser() {
+    void testFindByEmailShouldReturnUser() {
         // When
-        User expected = userRepository.findUserByEmail(user.getEmail());
+        Optional<User> expected = userRepository.findByEmail(user.getEmail());
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected).isPresent();
     }
 }
\ No newline at end of file
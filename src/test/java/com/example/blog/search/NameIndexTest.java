@@ -0,0 +1,112 @@
+package com.example.blog.search;
+
+import com.example.blog.dto.NameCountResponse;
+import com.example.blog.projection.NameCountView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameIndexTest {
+
+    private NameIndex nameIndex;
+
+    @BeforeEach
+    void setUp() {
+        nameIndex = new NameIndex() {
+        };
+        nameIndex.load(List.of(
+                nameCount("java", 3),
+                nameCount("JavaScript", 5),
+                nameCount("Java", 1),
+                nameCount("kotlin", 2)
+        ));
+    }
+
+    @Test
+    void testFindByPrefixShouldIgnoreCaseAndReturnNamesInAlphabeticalOrder() {
+        // When
+        List<NameCountResponse> expected = nameIndex.findByPrefix("JA", 10);
+
+        // Then
+        assertThat(expected).containsExactly(
+                new NameCountResponse("Java", 1),
+                new NameCountResponse("java", 3),
+                new NameCountResponse("JavaScript", 5)
+        );
+    }
+
+    @Test
+    void testFindByPrefixShouldReturnAtMostLimitNames() {
+        // When
+        List<NameCountResponse> expected = nameIndex.findByPrefix("j", 2);
+
+        // Then
+        assertThat(expected).hasSize(2);
+    }
+
+    @Test
+    void testFindByPrefixEmptyPrefixShouldReturnAllNames() {
+        // When
+        List<NameCountResponse> expected = nameIndex.findByPrefix("", 10);
+
+        // Then
+        assertThat(expected).hasSize(4);
+    }
+
+    @Test
+    void testAddShouldAddNameWithoutPosts() {
+        // When
+        nameIndex.add("go");
+
+        // Then
+        assertThat(nameIndex.findByPrefix("go", 10)).containsExactly(new NameCountResponse("go", 0));
+    }
+
+    @Test
+    void testRenameShouldKeepPostCount() {
+        // When
+        nameIndex.rename("kotlin", "Kotlin");
+
+        // Then
+        assertThat(nameIndex.findByPrefix("k", 10)).containsExactly(new NameCountResponse("Kotlin", 2));
+    }
+
+    @Test
+    void testRemoveShouldRemoveName() {
+        // When
+        nameIndex.remove("kotlin");
+
+        // Then
+        assertThat(nameIndex.findByPrefix("k", 10)).isEmpty();
+    }
+
+    @Test
+    void testAddPostAndRemovePostShouldChangePostCount() {
+        // When
+        nameIndex.addPost(List.of("kotlin", "scala"));
+        nameIndex.removePost(List.of("java"));
+
+        // Then
+        assertThat(nameIndex.findByPrefix("kotlin", 10)).containsExactly(new NameCountResponse("kotlin", 3));
+        assertThat(nameIndex.findByPrefix("scala", 10)).containsExactly(new NameCountResponse("scala", 1));
+        assertThat(nameIndex.findByPrefix("java", 1)).containsExactly(new NameCountResponse("Java", 1));
+        assertThat(nameIndex.findByPrefix("java", 2)).contains(new NameCountResponse("java", 2));
+    }
+
+    private NameCountView nameCount(String name, long postCount) {
+        return new NameCountView() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public long getPostCount() {
+                return postCount;
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.blog.search;
+
+import com.example.blog.dto.PostSearchResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchIndexTest {
+
+    private PostSearchIndex postSearchIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        //Empty path means that the index is kept in memory
+        postSearchIndex = new PostSearchIndex("");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        postSearchIndex.close();
+    }
+
+    @Test
+    void testSearchShouldReturnPostsWithQueryInTitleFirst() {
+        // Given
+        postSearchIndex.update(List.of(
+                post(1L, "Cooking", "Spring is the best time for cooking", List.of(), List.of()),
+                post(2L, "Spring Boot", "Writing REST APIs", List.of(), List.of())
+        ), List.of());
+
+        // When
+        List<PostSearchResponse> expected = postSearchIndex.search("spring", null, null, 0, 10);
+
+        // Then
+        assertThat(expected).extracting(PostSearchResponse::getTitle).containsExactly("Spring Boot", "Cooking");
+    }
+
+    @Test
+    void testSearchShouldReturnStoredFieldsOfThePost() {
+        // Given
+        PostDocument post = post(1L, "Spring Boot", "Writing REST APIs", List.of("java"), List.of("spring", "rest"));
+        postSearchIndex.update(List.of(post), List.of());
+
+        // When
+        List<PostSearchResponse> expected = postSearchIndex.search("rest", null, null, 0, 10);
+
+        // Then
+        assertThat(expected).hasSize(1);
+        assertThat(expected.get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.get(0).getCategories()).containsExactly("java");
+        assertThat(expected.get(0).getTags()).containsExactly("spring", "rest");
+        assertThat(expected.get(0).getCreatedAt()).isEqualTo(post.getCreatedAt());
+        assertThat(expected.get(0).getUpdatedAt()).isEqualTo(post.getUpdatedAt());
+    }
+
+    @Test
+    void testSearchShouldHighlightMatchesInSnippet() {
+        // Given
+        postSearchIndex.update(List.of(
+                post(1L, "Title", "Some <i>html</i> and the word lucene.", List.of(), List.of())
+        ), List.of());
+
+        // When
+        List<PostSearchResponse> expected = postSearchIndex.search("lucene", null, null, 0, 10);
+
+        // Then
+        assertThat(expected.get(0).getSnippet()).contains("<b>lucene</b>");
+        assertThat(expected.get(0).getSnippet()).contains("&lt;i&gt;html&lt;&#x2F;i&gt;");
+    }
+
+    @Test
+    void testSearchShouldFilterByCategoryAndTag() {
+        // Given
+        postSearchIndex.update(List.of(
+                post(1L, "Java first", "java", List.of("programming"), List.of("jvm")),
+                post(2L, "Java second", "java", List.of("programming"), List.of("coffee")),
+                post(3L, "Java third", "java", List.of("travel"), List.of("jvm"))
+        ), List.of());
+
+        // When
+        List<PostSearchResponse> byCategory = postSearchIndex.search("java", "programming", null, 0, 10);
+        List<PostSearchResponse> byCategoryAndTag = postSearchIndex.search("java", "programming", "jvm", 0, 10);
+
+        // Then
+        assertThat(byCategory).extracting(PostSearchResponse::getTitle)
+                .containsExactlyInAnyOrder("Java first", "Java second");
+        assertThat(byCategoryAndTag).extracting(PostSearchResponse::getTitle).containsExactly("Java first");
+    }
+
+    @Test
+    void testSearchShouldSkipPostsBeforeOffset() {
+        // Given
+        postSearchIndex.update(List.of(
+                post(1L, "Java", "java", List.of(), List.of()),
+                post(2L, "Java java", "java", List.of(), List.of()),
+                post(3L, "Java java java", "java", List.of(), List.of())
+        ), List.of());
+        List<PostSearchResponse> all = postSearchIndex.search("java", null, null, 0, 10);
+
+        // When
+        List<PostSearchResponse> expected = postSearchIndex.search("java", null, null, 1, 1);
+
+        // Then
+        assertThat(all).hasSize(3);
+        assertThat(expected).containsExactly(all.get(1));
+    }
+
+    @Test
+    void testUpdateShouldReplacePostWithSameId() {
+        // Given
+        postSearchIndex.update(List.of(post(1L, "Old title", "content", List.of(), List.of())), List.of());
+
+        // When
+        postSearchIndex.update(List.of(post(1L, "New title", "content", List.of(), List.of())), List.of());
+
+        // Then
+        assertThat(postSearchIndex.search("old", null, null, 0, 10)).isEmpty();
+        assertThat(postSearchIndex.search("new", null, null, 0, 10)).hasSize(1);
+    }
+
+    @Test
+    void testUpdateShouldRemoveDeletedPosts() {
+        // Given
+        postSearchIndex.update(List.of(post(1L, "Title", "content", List.of(), List.of())), List.of());
+
+        // When
+        postSearchIndex.update(List.of(), List.of(1L));
+
+        // Then
+        assertThat(postSearchIndex.search("title", null, null, 0, 10)).isEmpty();
+        assertThat(postSearchIndex.isEmpty()).isTrue();
+    }
+
+    private PostDocument post(Long id, String title, String content, List<String> categories, List<String> tags) {
+        return PostDocument.builder()
+                .id(id)
+                .title(title)
+                .content(content)
+                .categories(categories)
+                .tags(tags)
+                .createdAt(LocalDateTime.now().withNano(0))
+                .updatedAt(LocalDateTime.now().withNano(0))
+                .build();
+    }
+}
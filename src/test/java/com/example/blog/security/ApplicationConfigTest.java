@@ -0,0 +1,94 @@
+package com.example.blog.security;
+
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import com.example.blog.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationConfigTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsService userDetailsService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        var cacheManager = new ConcurrentMapCacheManager(ApplicationConfig.USERS_CACHE);
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsService = new ApplicationConfig(userRepository, cacheManager, meterRegistry).userDetailsService();
+
+        user = User.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build();
+    }
+
+    @Test
+    void testLoadUserByUsernameTwiceShouldQueryDatabaseOnce() {
+        // When
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername(user.getEmail());
+        UserDetails second = userDetailsService.loadUserByUsername(user.getEmail());
+
+        // Then
+        verify(userRepository, times(1)).findByEmail(user.getEmail());
+        assertThat(second).isNotSameAs(first);
+        assertThat(((User) second).getId()).isEqualTo(user.getId());
+        assertThat(second.getUsername()).isEqualTo(user.getEmail());
+        assertThat(second.getPassword()).isEqualTo(user.getPassword());
+        assertThat(second.getAuthorities()).isEqualTo(user.getAuthorities());
+    }
+
+    @Test
+    void testLoadUserByUsernameShouldThrowUsernameNotFoundException() {
+        // When
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.empty());
+
+        // Then
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(user.getEmail()))
+                .isInstanceOf(UsernameNotFoundException.class)
+                .hasMessageContaining("User not found");
+    }
+
+    @Test
+    void testPasswordEncoderShouldRecordTimeOfPasswordChecks() {
+        // Given
+        PasswordEncoder passwordEncoder = new ApplicationConfig(
+                userRepository, new ConcurrentMapCacheManager(), meterRegistry
+        ).passwordEncoder();
+        String encoded = passwordEncoder.encode("Test.123");
+
+        // When
+        boolean expected = passwordEncoder.matches("Test.123", encoded);
+
+        // Then
+        assertThat(expected).isTrue();
+        assertThat(meterRegistry.timer("blog.password.encoder", "operation", "matches").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("blog.password.encoder", "operation", "encode").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.blog.security;
+
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtService jwtService = new JwtService(meterRegistry);
+
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Test
+    void testExtractUsernameShouldReturnEmail() {
+        // When
+        String expected = jwtService.extractUsername(token);
+
+        // Then
+        assertThat(expected).isEqualTo(user.getEmail());
+    }
+
+    @Test
+    void testIsTokenValidShouldReturnTrue() {
+        // When
+        boolean expected = jwtService.isTokenValid(token, user);
+
+        // Then
+        assertThat(expected).isTrue();
+    }
+
+    @Test
+    void testIsTokenValidOtherUserShouldReturnFalse() {
+        // Given
+        User otherUser = User.builder().email("other@gmail.com").build();
+
+        // When
+        boolean expected = jwtService.isTokenValid(token, otherUser);
+
+        // Then
+        assertThat(expected).isFalse();
+    }
+
+    @Test
+    void testExtractAllClaimsShouldReturnSubjectAndExpiration() {
+        // When
+        Claims expected = jwtService.extractAllClaims(token);
+
+        // Then
+        assertThat(expected.getSubject()).isEqualTo(user.getEmail());
+        assertThat(expected.getExpiration()).isAfter(expected.getIssuedAt());
+    }
+
+    @Test
+    void testIsTokenValidWithClaimsShouldReturnFalseForOtherUser() {
+        // Given
+        Claims claims = jwtService.extractAllClaims(token);
+        User otherUser = User.builder().email("other@gmail.com").build();
+
+        // When
+        boolean expected = jwtService.isTokenValid(claims, otherUser);
+
+        // Then
+        assertThat(expected).isFalse();
+    }
+
+    @Test
+    void testGenerateTokenShouldBeTimed() {
+        // When
+        jwtService.generateToken(user);
+
+        // Then
+        //One token was already generated in setUp
+        assertThat(meterRegistry.get("blog.jwt").tag("operation", "sign").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testIsTokenValidWithClaimsShouldNotVerifyTokenAgain() {
+        // Given
+        Claims claims = jwtService.extractAllClaims(token);
+
+        // When
+        jwtService.isTokenValid(claims, user);
+
+        // Then
+        assertThat(meterRegistry.get("blog.jwt").tag("operation", "verify").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.blog.security;
+
+import com.example.blog.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginRateLimiter = new LoginRateLimiter(2, 3, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    void testCheckAttemptOverAccountLimitShouldThrowTooManyLoginAttemptsException() {
+        // Given
+        loginRateLimiter.checkAttempt("john_evans@gmail.com", "1.1.1.1");
+        loginRateLimiter.checkAttempt("John_Evans@gmail.com", "2.2.2.2");
+
+        // Then
+        assertThatThrownBy(() -> loginRateLimiter.checkAttempt("john_evans@gmail.com", "3.3.3.3"))
+                .isInstanceOf(TooManyLoginAttemptsException.class)
+                .hasMessageContaining("Too many login attempts, please try again later!");
+        assertThat(meterRegistry.counter("blog.login.rejected", "limit", "account").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCheckAttemptOverIpLimitShouldThrowTooManyLoginAttemptsException() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.checkAttempt("user_" + i + "@gmail.com", "1.1.1.1");
+        }
+
+        // Then
+        assertThatThrownBy(() -> loginRateLimiter.checkAttempt("other@gmail.com", "1.1.1.1"))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        assertThat(meterRegistry.counter("blog.login.rejected", "limit", "ip").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testLoginSucceededShouldResetAccountLimit() {
+        // Given
+        loginRateLimiter.checkAttempt("john_evans@gmail.com", "1.1.1.1");
+        loginRateLimiter.checkAttempt("john_evans@gmail.com", "1.1.1.1");
+
+        // When
+        loginRateLimiter.loginSucceeded("john_evans@gmail.com");
+
+        // Then
+        loginRateLimiter.checkAttempt("john_evans@gmail.com", "1.1.1.1");
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.blog.security;
+
+import com.example.blog.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHasher.close();
+    }
+
+    @Test
+    void testHashShouldEncodePasswordOnHasherThread() {
+        // Given
+        passwordHasher = new PasswordHasher(encoder(false), 1, 1);
+
+        // When
+        String expected = passwordHasher.hash("Test.123").join();
+
+        // Then
+        assertThat(expected).startsWith("encoded Test.123 on password-hasher-");
+    }
+
+    @Test
+    void testHashWhenQueueIsFullShouldThrowServiceBusyException() throws Exception {
+        // Given
+        //One thread which is blocked and one place in the queue
+        passwordHasher = new PasswordHasher(encoder(true), 1, 1);
+        CompletableFuture<String> running = passwordHasher.hash("first");
+        CompletableFuture<String> waiting = passwordHasher.hash("second");
+
+        // Then
+        assertThatThrownBy(() -> passwordHasher.hash("third"))
+                .isInstanceOf(ServiceBusyException.class)
+                .hasMessageContaining("Server is busy, please try again later!");
+
+        release.countDown();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).startsWith("encoded second");
+        assertThat(running.get(5, TimeUnit.SECONDS)).startsWith("encoded first");
+    }
+
+    private PasswordEncoder encoder(boolean blocking) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    if (blocking) {
+                        release.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "encoded " + rawPassword + " on " + Thread.currentThread().getName();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.blog.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private SlidingWindowRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new SlidingWindowRateLimiter(3, WINDOW, 100, clock::get);
+    }
+
+    @Test
+    void testTryAcquireOverLimitShouldReturnFalse() {
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("key")).isTrue();
+        }
+
+        // Then
+        assertThat(rateLimiter.tryAcquire("key")).isFalse();
+    }
+
+    @Test
+    void testTryAcquireShouldLimitEveryKeyOnItsOwn() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("key");
+        }
+
+        // When
+        boolean expected = rateLimiter.tryAcquire("other key");
+
+        // Then
+        assertThat(expected).isTrue();
+    }
+
+    @Test
+    void testTryAcquireShouldCountAttemptsOfPreviousWindowByTheirPartInSlidingWindow() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("key");
+        }
+
+        // When
+        //A third of the next window has passed, so two thirds of the previous window (two attempts) still count
+        clock.set(WINDOW.toNanos() + WINDOW.toNanos() / 3);
+        boolean first = rateLimiter.tryAcquire("key");
+        boolean second = rateLimiter.tryAcquire("key");
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+    }
+
+    @Test
+    void testTryAcquireAfterTwoWindowsShouldForgetOldAttempts() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("key");
+        }
+
+        // When
+        clock.set(WINDOW.toNanos() * 2);
+
+        // Then
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("key")).isTrue();
+        }
+    }
+
+    @Test
+    void testResetShouldAllowAttemptsAgain() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("key");
+        }
+
+        // When
+        rateLimiter.reset("key");
+
+        // Then
+        assertThat(rateLimiter.tryAcquire("key")).isTrue();
+    }
+}
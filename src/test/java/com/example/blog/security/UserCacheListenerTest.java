@@ -0,0 +1,75 @@
+package com.example.blog.security;
+
+import com.example.blog.config.CacheConfiguration;
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@Import(CacheConfiguration.class)
+class UserCacheListenerTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User user;
+    private Cache users;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persistAndFlush(User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+        users = cacheManager.getCache(ApplicationConfig.USERS_CACHE);
+        users.put(user.getEmail(), UserPrincipal.of(user));
+    }
+
+    @Test
+    void testUpdateUserShouldEvictHimFromCache() {
+        // Given
+        user.setFirstName("Jack");
+
+        // When
+        entityManager.flush();
+
+        // Then
+        assertThat(users.get(user.getEmail())).isNull();
+    }
+
+    @Test
+    void testDeleteUserShouldEvictHimFromCache() {
+        // Given
+        entityManager.remove(user);
+
+        // When
+        entityManager.flush();
+
+        // Then
+        assertThat(users.get(user.getEmail())).isNull();
+    }
+}
@@ -1,23 +1,27 @@
 package com.example.blog.service;
 
 import com.example.blog.dto.CategoryDto;
+import com.example.blog.dto.NameCountResponse;
 import com.example.blog.entity.*;
 import com.example.blog.exception.*;
+import com.example.blog.projection.NameCountView;
 import com.example.blog.repository.CategoryRepository;
 import com.example.blog.repository.PostCategoryRepository;
 import com.example.blog.repository.PostRepository;
-import com.example.blog.repository.UserRepository;
-import com.example.blog.security.JwtService;
+import com.example.blog.search.CategoryNameIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,8 +30,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class CategoryServiceTest {
 
-    private static final String TOKEN = "bearer token";
-
     @Mock
     private CategoryRepository categoryRepository;
 
@@ -35,13 +37,16 @@ class CategoryServiceTest {
     private PostRepository postRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private PostCategoryRepository postCategoryRepository;
 
     @Mock
-    private JwtService jwtService;
+    private PostCache postCache;
 
     @Mock
-    private PostCategoryRepository postCategoryRepository;
+    private PostIndexer postIndexer;
+
+    @Mock
+    private CategoryNameIndex categoryNameIndex;
 
     @InjectMocks
     private CategoryService categoryService;
@@ -59,7 +64,6 @@ class CategoryServiceTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
 
@@ -94,6 +98,7 @@ class CategoryServiceTest {
         // Then
         assertThat(expected).isNotNull();
         assertThat(expected.getName()).isEqualTo(categoryDto.getName());
+        verify(categoryNameIndex).add(categoryDto.getName());
     }
 
     @Test
@@ -135,6 +140,53 @@ class CategoryServiceTest {
         assertThat(expected).isNotNull();
     }
 
+    @Test
+    void testAutocompleteCategoriesShouldLimitSize() {
+        // Given
+        List<NameCountResponse> names = List.of(new NameCountResponse(category.getName(), 1));
+
+        // When
+        when(categoryNameIndex.findByPrefix("ca", 50)).thenReturn(names);
+
+        List<NameCountResponse> expected = categoryService.autocompleteCategories("ca", 1000);
+
+        // Then
+        assertThat(expected).isEqualTo(names);
+    }
+
+    @Test
+    void testGetPopularCategoriesShouldReturnNamesWithPostCounts() {
+        // Given
+        NameCountView nameCount = new NameCountView() {
+            @Override
+            public String getName() {
+                return category.getName();
+            }
+
+            @Override
+            public long getPostCount() {
+                return 3;
+            }
+        };
+
+        // When
+        when(categoryRepository.findPopular(PageRequest.of(0, 50))).thenReturn(List.of(nameCount));
+
+        List<NameCountResponse> expected = categoryService.getPopularCategories(1000);
+
+        // Then
+        assertThat(expected).isEqualTo(List.of(new NameCountResponse(category.getName(), 3)));
+    }
+
+    @Test
+    void testIncrementPostCountsWithoutNamesShouldNotUpdateDatabase() {
+        // When
+        categoryService.incrementPostCounts(List.of());
+
+        // Then
+        verifyNoInteractions(categoryRepository, categoryNameIndex);
+    }
+
     @Test
     void testGetAllCategoriesShouldReturnCategoryDtoList() {
         // When
@@ -153,17 +205,15 @@ class CategoryServiceTest {
         String categoryToUpdate = "category";
 
         // When
-        //Can't use the mock of the same method twice, because it will result in error, so it needs
-        //to be done this way, and since we should pass two different values to it, those being
-        //categoryToUpdate and categoryDto.getName() instead we use anyString()
-        when(categoryRepository.existsByName(anyString())).thenReturn(true, false);
-        when(categoryRepository.findByName(categoryToUpdate)).thenReturn(category);
+        when(categoryRepository.findByName(categoryToUpdate)).thenReturn(Optional.of(category));
+        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(false);
         when(categoryRepository.save(any(Category.class))).thenReturn(category);
 
         String expected = categoryService.updateCategory(categoryToUpdate, categoryDto);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(postCache).evictByCategory(category.getId());
     }
 
     @Test
@@ -172,7 +222,7 @@ class CategoryServiceTest {
         String categoryToUpdate = "category not found";
 
         // When
-        when(categoryRepository.existsByName(categoryToUpdate)).thenReturn(false);
+        when(categoryRepository.findByName(categoryToUpdate)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> categoryService.updateCategory(categoryToUpdate, categoryDto))
@@ -186,7 +236,8 @@ class CategoryServiceTest {
         String categoryToUpdate = "category";
 
         // When
-        when(categoryRepository.existsByName(anyString())).thenReturn(true, true);
+        when(categoryRepository.findByName(categoryToUpdate)).thenReturn(Optional.of(category));
+        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(true);
 
         // Then
         assertThatThrownBy(() -> categoryService.updateCategory(categoryToUpdate, categoryDto))
@@ -198,15 +249,18 @@ class CategoryServiceTest {
     void testDeleteCategoryShouldReturnString() {
         // Given
         String categoryToDelete = "category";
+        category.setId(1L);
 
         // When
-        when(categoryRepository.existsByName(categoryToDelete)).thenReturn(true);
-        doNothing().when(categoryRepository).deleteByName(categoryToDelete);
+        when(categoryRepository.findByName(categoryToDelete)).thenReturn(Optional.of(category));
 
         String expected = categoryService.deleteCategory(categoryToDelete);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(postCategoryRepository).deleteAllByCategoryId(category.getId());
+        verify(categoryRepository).deleteAllByIdInBatch(List.of(category.getId()));
+        verify(postCache).evictByCategory(category.getId());
     }
 
     @Test
@@ -215,7 +269,7 @@ class CategoryServiceTest {
         String categoryToDelete = "category not found";
 
         // When
-        when(categoryRepository.existsByName(categoryToDelete)).thenReturn(false);
+        when(categoryRepository.findByName(categoryToDelete)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> categoryService.deleteCategory(categoryToDelete))
@@ -230,19 +284,18 @@ class CategoryServiceTest {
         post.setPostCategories(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddCategory, user)).thenReturn(true);
-        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postToAddCategory, user)).thenReturn(post);
-        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(category);
+        when(postRepository.findByTitleAndUser(postToAddCategory, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(Optional.of(category));
         when(postCategoryRepository.existsByPostAndCategory(post, category)).thenReturn(false);
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        String expected = categoryService.addCategoryToPost(postToAddCategory, categoryDto, TOKEN);
+        String expected = categoryService.addCategoryToPost(postToAddCategory, categoryDto, user);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(categoryRepository).addToPostCount(List.of(category.getName()), 1);
+        verify(categoryNameIndex).addPost(List.of(category.getName()));
+        verify(postCache).evict(post.getId(), postToAddCategory);
     }
 
     @Test
@@ -251,12 +304,10 @@ class CategoryServiceTest {
         String postToAddCategory = "Test";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddCategory, user)).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postToAddCategory, user)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> categoryService.addCategoryToPost(postToAddCategory, categoryDto, TOKEN))
+        assertThatThrownBy(() -> categoryService.addCategoryToPost(postToAddCategory, categoryDto, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postToAddCategory + "' not found!");
     }
@@ -267,13 +318,11 @@ class CategoryServiceTest {
         String postToAddCategory = "Test";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddCategory, user)).thenReturn(true);
-        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postToAddCategory, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> categoryService.addCategoryToPost(postToAddCategory, categoryDto, TOKEN))
+        assertThatThrownBy(() -> categoryService.addCategoryToPost(postToAddCategory, categoryDto, user))
                 .isInstanceOf(CategoryNotFoundException.class)
                 .hasMessageContaining("Category '" + categoryDto.getName() + "' not found!");
     }
@@ -284,16 +333,12 @@ class CategoryServiceTest {
         String postToAddCategory = "Test";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddCategory, user)).thenReturn(true);
-        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postToAddCategory, user)).thenReturn(post);
-        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(category);
+        when(postRepository.findByTitleAndUser(postToAddCategory, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(Optional.of(category));
         when(postCategoryRepository.existsByPostAndCategory(post, category)).thenReturn(true);
 
         // Then
-        assertThatThrownBy(() -> categoryService.addCategoryToPost(postToAddCategory, categoryDto, TOKEN))
+        assertThatThrownBy(() -> categoryService.addCategoryToPost(postToAddCategory, categoryDto, user))
                 .isInstanceOf(PostAlreadyContainsThatCategoryException.class)
                 .hasMessageContaining(
                         "Post '" + postToAddCategory +
@@ -301,6 +346,73 @@ class CategoryServiceTest {
                 );
     }
 
+    @Test
+    void testAddCategoriesToPostShouldAddAllCategories() {
+        // Given
+        String postToAddCategories = "Test";
+        post.setId(1L);
+        post.setPostCategories(new ArrayList<>());
+        category.setId(1L);
+        Category otherCategory = Category.builder().id(2L).name("other").build();
+        List<CategoryDto> request = List.of(categoryDto, new CategoryDto(otherCategory.getName()));
+
+        // When
+        when(postRepository.findByTitleAndUser(postToAddCategories, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findAllByNameIn(Set.of(category.getName(), otherCategory.getName())))
+                .thenReturn(List.of(otherCategory, category));
+
+        String expected = categoryService.addCategoriesToPost(postToAddCategories, request, user);
+
+        // Then
+        assertThat(expected).isEqualTo("All categories added to the post '" + postToAddCategories + "'");
+        assertThat(post.getPostCategories()).extracting(PostCategory::getCategory).containsExactly(category, otherCategory);
+        verify(postRepository).save(post);
+        verify(postCache).evict(post.getId(), postToAddCategories);
+    }
+
+    @Test
+    void testAddCategoriesToPostShouldThrowCategoryNotFoundException() {
+        // Given
+        String postToAddCategories = "Test";
+        post.setPostCategories(new ArrayList<>());
+        List<CategoryDto> request = List.of(categoryDto, new CategoryDto("missing"));
+
+        // When
+        when(postRepository.findByTitleAndUser(postToAddCategories, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findAllByNameIn(Set.of(category.getName(), "missing"))).thenReturn(List.of(category));
+
+        // Then
+        assertThatThrownBy(() -> categoryService.addCategoriesToPost(postToAddCategories, request, user))
+                .isInstanceOf(CategoryNotFoundException.class)
+                .hasMessageContaining("Category by the name missing not found!");
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
+    @Test
+    void testAddCategoriesToPostShouldThrowPostAlreadyContainsThatCategoryException() {
+        // Given
+        String postToAddCategories = "Test";
+        post.setId(1L);
+        category.setId(1L);
+        post.setPostCategories(new ArrayList<>(List.of(PostCategory.builder()
+                .postCategoryId(new PostCategoryId(post.getId(), category.getId()))
+                .post(post)
+                .category(category)
+                .build())));
+
+        // When
+        when(postRepository.findByTitleAndUser(postToAddCategories, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findAllByNameIn(Set.of(category.getName()))).thenReturn(List.of(category));
+
+        // Then
+        assertThatThrownBy(() -> categoryService.addCategoriesToPost(postToAddCategories, List.of(categoryDto), user))
+                .isInstanceOf(PostAlreadyContainsThatCategoryException.class)
+                .hasMessageContaining(
+                        "Post '" + postToAddCategories + "' already contains category '" + category.getName() + "'"
+                );
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
     @Test
     void testDeleteCategoryFromPostShouldReturnString() {
         // Given
@@ -308,20 +420,17 @@ class CategoryServiceTest {
         post.setPostCategories(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postDeleteCategory, user)).thenReturn(true);
-        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postDeleteCategory, user)).thenReturn(post);
-        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(category);
-        when(postCategoryRepository.existsByPostAndCategory(post, category)).thenReturn(true);
-        when(postCategoryRepository.findByPostAndCategory(post, category)).thenReturn(postCategory);
+        when(postRepository.findByTitleAndUser(postDeleteCategory, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(Optional.of(category));
+        when(postCategoryRepository.findByPostAndCategory(post, category)).thenReturn(Optional.of(postCategory));
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        String expected = categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, TOKEN);
+        String expected = categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, user);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(categoryRepository).addToPostCount(List.of(category.getName()), -1);
+        verify(categoryNameIndex).removePost(List.of(category.getName()));
     }
 
     @Test
@@ -330,12 +439,10 @@ class CategoryServiceTest {
         String postDeleteCategory = "Test";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postDeleteCategory, user)).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postDeleteCategory, user)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, TOKEN))
+        assertThatThrownBy(() -> categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postDeleteCategory + "' not found!");
     }
@@ -346,13 +453,11 @@ class CategoryServiceTest {
         String postDeleteCategory = "Test";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postDeleteCategory, user)).thenReturn(true);
-        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postDeleteCategory, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, TOKEN))
+        assertThatThrownBy(() -> categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, user))
                 .isInstanceOf(CategoryNotFoundException.class)
                 .hasMessageContaining("Category '" + categoryDto.getName() + "' not found!");
     }
@@ -364,16 +469,12 @@ class CategoryServiceTest {
         post.setPostCategories(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postDeleteCategory, user)).thenReturn(true);
-        when(categoryRepository.existsByName(categoryDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postDeleteCategory, user)).thenReturn(post);
-        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(category);
-        when(postCategoryRepository.existsByPostAndCategory(post, category)).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postDeleteCategory, user)).thenReturn(Optional.of(post));
+        when(categoryRepository.findByName(categoryDto.getName())).thenReturn(Optional.of(category));
+        when(postCategoryRepository.findByPostAndCategory(post, category)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, TOKEN))
+        assertThatThrownBy(() -> categoryService.deleteCategoryFromPost(postDeleteCategory, categoryDto, user))
                 .isInstanceOf(PostDoesNotContainThatCategoryException.class)
                 .hasMessageContaining(
                         "Post '" + postDeleteCategory +
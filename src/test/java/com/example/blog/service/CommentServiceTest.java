@@ -2,25 +2,29 @@ package com.example.blog.service;
 
 import com.example.blog.dto.CommentRequest;
 import com.example.blog.dto.CommentResponse;
+import com.example.blog.dto.PageResponse;
 import com.example.blog.entity.Comment;
 import com.example.blog.entity.Post;
 import com.example.blog.entity.Role;
 import com.example.blog.entity.User;
 import com.example.blog.exception.CommentNotFoundException;
+import com.example.blog.exception.InvalidCursorException;
 import com.example.blog.exception.PostNotFoundException;
+import com.example.blog.projection.CommentVersionView;
+import com.example.blog.projection.CommentView;
 import com.example.blog.repository.CommentRepository;
 import com.example.blog.repository.PostRepository;
-import com.example.blog.repository.UserRepository;
-import com.example.blog.security.JwtService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,20 +33,12 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class CommentServiceTest {
 
-    private static final String TOKEN = "bearer token";
-
     @Mock
     private CommentRepository commentRepository;
 
     @Mock
     private PostRepository postRepository;
 
-    @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private JwtService jwtService;
-
     @InjectMocks
     private CommentService commentService;
 
@@ -59,11 +55,11 @@ class CommentServiceTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
 
         post = Post.builder()
+                .id(1L)
                 .title("Test")
                 .content("test")
                 .createdAt(LocalDateTime.now().withNano(0))
@@ -87,13 +83,10 @@ class CommentServiceTest {
     @Test
     void testCreateCommentShouldReturnCommentResponse() {
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
 
-        CommentResponse expected = commentService.createComment(postTitle, commentRequest, TOKEN);
+        CommentResponse expected = commentService.createComment(postTitle, commentRequest, user);
 
         // Then
         assertThat(expected).isNotNull();
@@ -103,12 +96,10 @@ class CommentServiceTest {
     @Test
     void testCreateCommentShouldReturnThrowPostNotFoundException() {
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> commentService.createComment(postTitle, commentRequest, TOKEN))
+        assertThatThrownBy(() -> commentService.createComment(postTitle, commentRequest, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postTitle + "' not found!");
     }
@@ -119,10 +110,8 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
-        when(commentRepository.existsByIdAndPost(commentId, post)).thenReturn(true);
-        when(commentRepository.findByIdAndPost(commentId, post)).thenReturn(comment);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
+        when(commentRepository.findByIdAndPost(commentId, post)).thenReturn(Optional.of(comment));
 
         CommentResponse expected = commentService.getComment(postTitle, commentId);
 
@@ -140,7 +129,7 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(postRepository.existsByTitle(postTitle)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> commentService.getComment(postTitle, commentId))
@@ -154,9 +143,8 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
-        when(commentRepository.existsByIdAndPost(commentId, post)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
+        when(commentRepository.findByIdAndPost(commentId, post)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> commentService.getComment(postTitle, commentId))
@@ -165,29 +153,125 @@ class CommentServiceTest {
     }
 
     @Test
-    void testGetAllCommentsShouldReturnCommentResponseList() {
+    void testGetAllCommentsShouldReturnCommentResponsePage() {
+        // Given
+        comment.setId(1L);
+
         // When
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
-        when(commentRepository.findAllByPost(post)).thenReturn(List.of(comment));
+        when(postRepository.findIdByTitle(postTitle)).thenReturn(Optional.of(post.getId()));
+        when(commentRepository.findPageByPostId(
+                post.getId(), PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21)
+        )).thenReturn(List.of(commentView(comment)));
 
-        List<CommentResponse> expected = commentService.getAllComments(postTitle);
+        PageResponse<CommentResponse> expected = commentService.getAllComments(postTitle, null, 20);
 
         // Then
         assertThat(expected).isNotNull();
-        assertThat(expected.get(0).getContent()).isEqualTo(comment.getContent());
-        assertThat(expected.get(0).getUserName()).isEqualTo(comment.getUser().getEmail());
-        assertThat(expected.get(0).getCreatedAt()).isEqualTo(comment.getCreatedAt());
-        assertThat(expected.get(0).getUpdatedAt()).isEqualTo(comment.getUpdatedAt());
+        assertThat(expected.getContent().size()).isEqualTo(1);
+        assertThat(expected.getContent().get(0).getContent()).isEqualTo(comment.getContent());
+        assertThat(expected.getContent().get(0).getUserName()).isEqualTo(comment.getUser().getEmail());
+        assertThat(expected.getContent().get(0).getCreatedAt()).isEqualTo(comment.getCreatedAt());
+        assertThat(expected.getContent().get(0).getUpdatedAt()).isEqualTo(comment.getUpdatedAt());
+        assertThat(expected.getNext()).isNull();
+        verify(postRepository, never()).findByTitle(postTitle);
+    }
+
+    @Test
+    void testGetAllCommentsMoreCommentsThanPageSizeShouldReturnNextCursor() {
+        // Given
+        comment.setId(2L);
+        Comment olderComment = Comment.builder()
+                .id(1L)
+                .content("Older")
+                .createdAt(comment.getCreatedAt().minusDays(1))
+                .updatedAt(comment.getUpdatedAt().minusDays(1))
+                .user(user)
+                .post(post)
+                .build();
+
+        // When
+        when(postRepository.findIdByTitle(postTitle)).thenReturn(Optional.of(post.getId()));
+        when(commentRepository.findPageByPostId(
+                post.getId(), PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 2)
+        )).thenReturn(List.of(commentView(comment), commentView(olderComment)));
+
+        PageResponse<CommentResponse> expected = commentService.getAllComments(postTitle, null, 1);
+
+        // Then
+        assertThat(expected.getContent().size()).isEqualTo(1);
+        assertThat(expected.getContent().get(0).getContent()).isEqualTo(comment.getContent());
+        assertThat(expected.getNext()).isEqualTo(new PageCursor(comment.getCreatedAt(), comment.getId()).encode());
+    }
+
+    @Test
+    void testGetAllCommentsWithCursorShouldReturnCommentsAfterCursor() {
+        // Given
+        comment.setId(1L);
+        PageCursor cursor = new PageCursor(comment.getCreatedAt().plusDays(1), 5L);
+
+        // When
+        when(postRepository.findIdByTitle(postTitle)).thenReturn(Optional.of(post.getId()));
+        when(commentRepository.findPageByPostId(post.getId(), cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, 21)))
+                .thenReturn(List.of(commentView(comment)));
+
+        PageResponse<CommentResponse> expected = commentService.getAllComments(postTitle, cursor.encode(), 20);
+
+        // Then
+        assertThat(expected.getContent().size()).isEqualTo(1);
+        assertThat(expected.getNext()).isNull();
+    }
+
+    @Test
+    void testGetAllCommentsShouldThrowInvalidCursorException() {
+        // Given
+        String cursor = "invalid";
+
+        // When
+        when(postRepository.findIdByTitle(postTitle)).thenReturn(Optional.of(post.getId()));
+
+        // Then
+        assertThatThrownBy(() -> commentService.getAllComments(postTitle, cursor, 20))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("Cursor '" + cursor + "' is not valid!");
+    }
+
+    @Test
+    void testGetAllCommentsVersionShouldChangeWhenCommentIsUpdated() {
+        // Given
+        comment.setId(1L);
+        when(postRepository.findIdByTitle(postTitle)).thenReturn(Optional.of(post.getId()));
+        when(commentRepository.findVersionPageByPostId(
+                post.getId(), PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21)
+        )).thenReturn(List.of(commentVersion(comment)));
+        ContentVersion before = commentService.getAllCommentsVersion(postTitle, null, 20);
+        comment.setUpdatedAt(comment.getUpdatedAt().plusMinutes(1));
+
+        // When
+        ContentVersion expected = commentService.getAllCommentsVersion(postTitle, null, 20);
+
+        // Then
+        assertThat(expected.getEtag()).isNotEqualTo(before.getEtag());
+        verify(postRepository, never()).findByTitle(postTitle);
+    }
+
+    @Test
+    void testGetAllCommentsVersionShouldThrowPostNotFoundException() {
+        // When
+        when(postRepository.findIdByTitle(postTitle)).thenReturn(Optional.empty());
+
+        // Then
+        assertThatThrownBy(() -> commentService.getAllCommentsVersion(postTitle, null, 20))
+                .isInstanceOf(PostNotFoundException.class)
+                .hasMessageContaining("Post with the title '" + postTitle + "' not found!");
     }
 
     @Test
     void testGetAllCommentsShouldThrowPostNotFoundException() {
         // When
-        when(postRepository.existsByTitle(postTitle)).thenReturn(false);
+        when(postRepository.findIdByTitle(postTitle)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> commentService.getAllComments(postTitle))
+        assertThatThrownBy(() -> commentService.getAllComments(postTitle, null, 20))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postTitle + "' not found!");
     }
@@ -198,15 +282,11 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
-        when(commentRepository.existsByIdAndPostAndUser(commentId, post, user)).thenReturn(true);
-        when(commentRepository.findByIdAndPostAndUser(commentId, post, user)).thenReturn(comment);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
+        when(commentRepository.findByIdAndPostAndUser(commentId, post, user)).thenReturn(Optional.of(comment));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
 
-        CommentResponse expected = commentService.updateComment(postTitle, commentId, commentRequest, TOKEN);
+        CommentResponse expected = commentService.updateComment(postTitle, commentId, commentRequest, user);
 
         // Then
         assertThat(expected).isNotNull();
@@ -222,12 +302,10 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> commentService.updateComment(postTitle, commentId, commentRequest, TOKEN))
+        assertThatThrownBy(() -> commentService.updateComment(postTitle, commentId, commentRequest, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postTitle + "' not found!");
     }
@@ -238,14 +316,11 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
-        when(commentRepository.existsByIdAndPostAndUser(commentId, post, user)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
+        when(commentRepository.findByIdAndPostAndUser(commentId, post, user)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> commentService.updateComment(postTitle, commentId, commentRequest, TOKEN))
+        assertThatThrownBy(() -> commentService.updateComment(postTitle, commentId, commentRequest, user))
                 .isInstanceOf(CommentNotFoundException.class)
                 .hasMessageContaining("Comment not found");
     }
@@ -256,17 +331,14 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
-        when(commentRepository.existsByIdAndPostAndUser(commentId, post, user)).thenReturn(true);
-        doNothing().when(commentRepository).deleteById(commentId);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
+        when(commentRepository.findByIdAndPostAndUser(commentId, post, user)).thenReturn(Optional.of(comment));
 
-        String expected = commentService.deleteComment(postTitle, commentId, TOKEN);
+        String expected = commentService.deleteComment(postTitle, commentId, user);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(commentRepository).delete(comment);
     }
 
     @Test
@@ -275,12 +347,10 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> commentService.deleteComment(postTitle, commentId, TOKEN))
+        assertThatThrownBy(() -> commentService.deleteComment(postTitle, commentId, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postTitle + "' not found!");
     }
@@ -291,15 +361,55 @@ class CommentServiceTest {
         Long commentId = 1L;
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
-        when(commentRepository.existsByIdAndPostAndUser(commentId, post, user)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
+        when(commentRepository.findByIdAndPostAndUser(commentId, post, user)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> commentService.deleteComment(postTitle, commentId, TOKEN))
+        assertThatThrownBy(() -> commentService.deleteComment(postTitle, commentId, user))
                 .isInstanceOf(CommentNotFoundException.class)
                 .hasMessageContaining("Comment not found");
     }
-}
\ No newline at end of file
+
+    private CommentVersionView commentVersion(Comment comment) {
+        return new CommentVersionView() {
+            @Override
+            public Long getId() {
+                return comment.getId();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return comment.getUpdatedAt();
+            }
+        };
+    }
+
+    private CommentView commentView(Comment comment) {
+        return new CommentView() {
+            @Override
+            public Long getId() {
+                return comment.getId();
+            }
+
+            @Override
+            public String getUserName() {
+                return comment.getUser().getEmail();
+            }
+
+            @Override
+            public String getContent() {
+                return comment.getContent();
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return comment.getCreatedAt();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return comment.getUpdatedAt();
+            }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.blog.service;
+
+import com.example.blog.config.CacheConfiguration;
+import com.example.blog.config.MaxQueries;
+import com.example.blog.config.QueryCountConfiguration;
+import com.example.blog.entity.*;
+import com.example.blog.search.CategoryNameIndex;
+import com.example.blog.search.PostSearchIndex;
+import com.example.blog.search.TagNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Guards list endpoints against N+1 queries with @MaxQueries: every page here has many posts (comments),
+//each with its own user, category and tag rows, so fetching anything per post (comment) would go over the limit
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@Import({PostService.class, CommentService.class, CategoryService.class, TagService.class,
+        PostCache.class, PostIndexer.class, PostSearchIndex.class, CategoryNameIndex.class, TagNameIndex.class,
+        CacheConfiguration.class, QueryCountConfiguration.class})
+class ListingQueryCountTest {
+
+    private static final int COUNT = 30;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Post post;
+    private Category category;
+    private Tag tag;
+
+    @BeforeEach
+    void setUp() {
+        category = entityManager.persist(Category.builder().name("category").build());
+        tag = entityManager.persist(Tag.builder().name("tag").build());
+        for (int i = 0; i < COUNT; i++) {
+            User user = entityManager.persist(User.builder()
+                    .firstName("John")
+                    .lastName("Evans")
+                    .email("user_" + i + "@gmail.com")
+                    .password("Test.123")
+                    .role(Role.USER)
+                    .build());
+            Post created = entityManager.persist(Post.builder()
+                    .title("Post " + i)
+                    .content("content")
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .user(user)
+                    .build());
+            entityManager.persist(PostCategory.builder()
+                    .postCategoryId(new PostCategoryId(created.getId(), category.getId()))
+                    .post(created)
+                    .category(category)
+                    .build());
+            entityManager.persist(PostTag.builder()
+                    .postTagId(new PostTagId(created.getId(), tag.getId()))
+                    .post(created)
+                    .tag(tag)
+                    .build());
+            if (post == null) {
+                post = created;
+            }
+            entityManager.persist(Comment.builder()
+                    .content("comment " + i)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .user(user)
+                    .post(post)
+                    .build());
+        }
+
+        //We clear the persistence context, so nothing is served from it
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @MaxQueries(3)
+    void testGetAllPostsShouldNotRunQueriesPerPost() {
+        // When
+        var expected = postService.getAllPosts(null, 100);
+
+        // Then
+        //Page of posts, names of their categories and names of their tags
+        assertThat(expected.getContent()).hasSize(COUNT);
+    }
+
+    @Test
+    @MaxQueries(4)
+    void testGetAllPostsByCategoryShouldNotRunQueriesPerPost() {
+        // When
+        var expected = postService.getAllPostsByCategory(category.getName(), null, 100);
+
+        // Then
+        //Category lookup, page of posts, names of their categories and names of their tags
+        assertThat(expected.getContent()).hasSize(COUNT);
+    }
+
+    @Test
+    @MaxQueries(4)
+    void testGetAllPostsByTagShouldNotRunQueriesPerPost() {
+        // When
+        var expected = postService.getAllPostsByTag(tag.getName(), null, 100);
+
+        // Then
+        //Tag lookup, page of posts, names of their categories and names of their tags
+        assertThat(expected.getContent()).hasSize(COUNT);
+    }
+
+    @Test
+    @MaxQueries(2)
+    void testGetAllCommentsShouldNotRunQueriesPerComment() {
+        // When
+        var expected = commentService.getAllComments(post.getTitle(), null, 100);
+
+        // Then
+        //Post lookup and page of comments with emails of their users
+        assertThat(expected.getContent()).hasSize(COUNT);
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.blog.service;
+
+import com.example.blog.config.CacheConfiguration;
+import com.example.blog.dto.CategoryDto;
+import com.example.blog.dto.CommentRequest;
+import com.example.blog.dto.TagDto;
+import com.example.blog.entity.*;
+import com.example.blog.search.CategoryNameIndex;
+import com.example.blog.search.PostSearchIndex;
+import com.example.blog.search.TagNameIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Checks that single entity lookups (post by title, comment by id and post, category/tag of the post...)
+//are done with one query each, instead of asking if the entity exists first and then fetching it
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@Import({PostService.class, CommentService.class, CategoryService.class, TagService.class,
+        PostCache.class, PostIndexer.class, PostSearchIndex.class, CategoryNameIndex.class, TagNameIndex.class,
+        CacheConfiguration.class})
+class LookupQueryCountTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Post post;
+    private Comment comment;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+        post = entityManager.persist(Post.builder()
+                .title("Test")
+                .content("content")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .user(user)
+                .build());
+        Category category = entityManager.persist(Category.builder().name("category").build());
+        Tag tag = entityManager.persist(Tag.builder().name("tag").build());
+        entityManager.persist(PostCategory.builder()
+                .postCategoryId(new PostCategoryId(post.getId(), category.getId()))
+                .post(post)
+                .category(category)
+                .build());
+        entityManager.persist(PostTag.builder()
+                .postTagId(new PostTagId(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build());
+        comment = entityManager.persist(Comment.builder()
+                .content("comment")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .user(user)
+                .post(post)
+                .build());
+
+        //We clear the persistence context, so every lookup really has to go to the database
+        entityManager.flush();
+        entityManager.clear();
+        user = entityManager.find(User.class, user.getId());
+    }
+
+    @Test
+    void testGetPostShouldRunOneLookupQuery() {
+        // When
+        long expected = countStatements(() -> postService.getPost(post.getTitle()));
+
+        // Then
+        //Post, its user, categories and tags (category and tag of the post)
+        assertThat(expected).isEqualTo(5);
+    }
+
+    @Test
+    void testGetCommentShouldRunOneLookupQueryPerEntity() {
+        // When
+        long expected = countStatements(() -> commentService.getComment(post.getTitle(), comment.getId()));
+
+        // Then
+        //Post and comment (user of the comment was loaded in setUp)
+        assertThat(expected).isEqualTo(2);
+    }
+
+    @Test
+    void testDeleteCommentShouldRunOneLookupQueryPerEntity() {
+        // When
+        long expected = countStatements(() -> commentService.deleteComment(post.getTitle(), comment.getId(), user));
+
+        // Then
+        assertThat(expected).isEqualTo(3);
+    }
+
+    @Test
+    void testDeleteCategoryFromPostShouldRunOneLookupQueryPerEntity() {
+        // When
+        long expected = countStatements(() -> categoryService.deleteCategoryFromPost(
+                post.getTitle(), CategoryDto.builder().name("category").build(), user
+        ));
+
+        // Then
+        //Lookups, delete of the bridge row, update of the post count and of the version of the post
+        assertThat(expected).isEqualTo(7);
+    }
+
+    @Test
+    void testDeleteTagFromPostShouldRunOneLookupQueryPerEntity() {
+        // When
+        long expected = countStatements(() -> tagService.deleteTagFromPost(
+                post.getTitle(), TagDto.builder().name("tag").build(), user
+        ));
+
+        // Then
+        //Lookups, delete of the bridge row, update of the post count and of the version of the post
+        assertThat(expected).isEqualTo(7);
+    }
+
+    @Test
+    void testCreateCommentShouldRunOneLookupQuery() {
+        // When
+        long expected = countStatements(() -> commentService.createComment(
+                post.getTitle(), CommentRequest.builder().content("new comment").build(), user
+        ));
+
+        // Then
+        //Post lookup and the comment insert (id comes from the already allocated block)
+        assertThat(expected).isEqualTo(2);
+    }
+
+    @Test
+    void testGetAllCommentsShouldRunConstantNumberOfStatements() {
+        // Given
+        long oneComment = countStatements(() -> commentService.getAllComments(post.getTitle(), null, 100));
+        for (int i = 0; i < 20; i++) {
+            //Every comment has its own user, so users can not be served from the persistence context
+            User commenter = entityManager.persist(User.builder()
+                    .firstName("John")
+                    .lastName("Evans")
+                    .email("commenter_" + i + "@gmail.com")
+                    .password("Test.123")
+                    .role(Role.USER)
+                    .build());
+            entityManager.persist(Comment.builder()
+                    .content("comment " + i)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .user(commenter)
+                    .post(entityManager.find(Post.class, post.getId()))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        long manyComments = countStatements(() -> commentService.getAllComments(post.getTitle(), null, 100));
+
+        // Then
+        //Post and one page of comments with emails of their users
+        assertThat(oneComment).isEqualTo(2);
+        assertThat(manyComments).isEqualTo(oneComment);
+    }
+
+    @Test
+    void testDeletePostShouldRunOneDeletePerTable() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            entityManager.persist(Comment.builder()
+                    .content("comment " + i)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .user(user)
+                    .post(entityManager.find(Post.class, post.getId()))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        long expected = countStatements(() -> postService.deletePost(post.getTitle(), user));
+
+        // Then
+        //Id lookup, names and post counts of categories and tags, and one delete for comments,
+        //categories, tags and the post, no matter how many comments the post has
+        assertThat(expected).isEqualTo(9);
+        assertThat(entityManager.find(Post.class, post.getId())).isNull();
+    }
+
+    @Test
+    void testDeleteTagShouldRunOneDeletePerTable() {
+        // Given
+        Tag tag = entityManager.getEntityManager()
+                .createQuery("select t from Tag t where t.name = 'tag'", Tag.class)
+                .getSingleResult();
+        for (int i = 0; i < 20; i++) {
+            Post otherPost = entityManager.persist(Post.builder()
+                    .title("Post " + i)
+                    .content("content")
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .user(user)
+                    .build());
+            entityManager.persist(PostTag.builder()
+                    .postTagId(new PostTagId(otherPost.getId(), tag.getId()))
+                    .post(otherPost)
+                    .tag(tag)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        long expected = countStatements(() -> tagService.deleteTag("tag"));
+
+        // Then
+        //Tag lookup, titles and ids of its posts, one update of their versions and one delete
+        //for post tags and the tag, no matter how many posts have the tag
+        assertThat(expected).isEqualTo(6);
+        //Bulk delete does not touch the persistence context, so the tag loaded by deleteTag is still in it
+        entityManager.clear();
+        assertThat(entityManager.find(Tag.class, tag.getId())).isNull();
+    }
+
+    private <T> long countStatements(Supplier<T> action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.get();
+        //Test is one transaction, so we have to flush to actually send inserts/updates/deletes
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.PostSearchResponse;
+import com.example.blog.entity.*;
+import com.example.blog.search.PostSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Every test gets a new (empty) index
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({PostIndexer.class, PostSearchIndex.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class PostIndexerTest {
+
+    @Autowired
+    private PostIndexer postIndexer;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+    }
+
+    @Test
+    void testReindexNowShouldIndexPostWithItsCategoriesAndTags() {
+        // Given
+        Post post = createPost("Spring Boot", "Writing REST APIs");
+        Category category = entityManager.persist(Category.builder().name("java").build());
+        Tag tag = entityManager.persist(Tag.builder().name("spring").build());
+        entityManager.persist(PostCategory.builder()
+                .postCategoryId(new PostCategoryId(post.getId(), category.getId()))
+                .post(post)
+                .category(category)
+                .build());
+        entityManager.persist(PostTag.builder()
+                .postTagId(new PostTagId(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        postIndexer.reindexNow(List.of(post.getId()));
+
+        // Then
+        List<PostSearchResponse> expected = postSearchIndex.search("rest", "java", "spring", 0, 10);
+        assertThat(expected).hasSize(1);
+        assertThat(expected.get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.get(0).getCategories()).containsExactly(category.getName());
+        assertThat(expected.get(0).getTags()).containsExactly(tag.getName());
+    }
+
+    @Test
+    void testReindexNowMoreThanOneBatchShouldIndexAllPosts() {
+        // Given
+        List<Long> postIds = new ArrayList<>();
+        for (int i = 0; i <= PostIndexer.REINDEX_BATCH_SIZE; i++) {
+            postIds.add(entityManager.persist(Post.builder()
+                    .title("Post " + i)
+                    .content("Writing REST APIs")
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .user(user)
+                    .build()).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        postIndexer.reindexNow(postIds);
+
+        // Then
+        assertThat(postSearchIndex.search("rest", null, null, 0, postIds.size() + 1)).hasSize(postIds.size());
+    }
+
+    @Test
+    void testReindexNowShouldRemovePostsThatDoNotExist() {
+        // Given
+        Post post = createPost("Spring Boot", "Writing REST APIs");
+        postIndexer.reindexNow(List.of(post.getId()));
+        entityManager.remove(post);
+        entityManager.flush();
+
+        // When
+        postIndexer.reindexNow(List.of(post.getId()));
+
+        // Then
+        assertThat(postSearchIndex.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testReindexShouldWaitForTransactionToCommit() {
+        // Given
+        Post post = createPost("Spring Boot", "Writing REST APIs");
+
+        // When
+        //Test runs in a transaction which is rolled back in the end, so the post is never indexed
+        postIndexer.reindex(post.getId());
+
+        // Then
+        assertThat(postSearchIndex.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testRebuildIfEmptyShouldIndexAllPosts() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            createPost("Post " + i, "content " + i);
+        }
+
+        // When
+        postIndexer.rebuildIfEmpty();
+
+        // Then
+        assertThat(postSearchIndex.search("content", null, null, 0, 10)).hasSize(5);
+    }
+
+    private Post createPost(String title, String content) {
+        Post post = entityManager.persist(Post.builder()
+                .title(title)
+                .content(content)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .user(user)
+                .build());
+        //Post built with the builder has no collections, so we load it again to get the managed ones
+        entityManager.flush();
+        entityManager.clear();
+        user = entityManager.find(User.class, user.getId());
+        return entityManager.find(Post.class, post.getId());
+    }
+}
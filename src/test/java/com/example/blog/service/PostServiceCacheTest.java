@@ -0,0 +1,153 @@
+package com.example.blog.service;
+
+import com.example.blog.config.CacheConfiguration;
+import com.example.blog.dto.PostUpdateRequest;
+import com.example.blog.entity.Post;
+import com.example.blog.entity.Role;
+import com.example.blog.entity.User;
+import com.example.blog.search.CategoryNameIndex;
+import com.example.blog.search.PostSearchIndex;
+import com.example.blog.search.TagNameIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Checks that getPost is served from the cache and that changing the post evicts it
+//(DataJpaTest turns caching off by default, so we have to turn it back on)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@Import({PostService.class, CategoryService.class, TagService.class, PostCache.class, PostIndexer.class,
+        PostSearchIndex.class, CategoryNameIndex.class, TagNameIndex.class, CacheConfiguration.class})
+class PostServiceCacheTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+        post = entityManager.persist(Post.builder()
+                .title("Test")
+                .content("test")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .user(user)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        postCache.evict(post.getId(), post.getTitle());
+    }
+
+    @Test
+    void testGetPostSecondCallShouldNotRunAnyStatements() {
+        // Given
+        postService.getPost(post.getTitle());
+
+        // When
+        long statements = countStatements(() -> postService.getPost(post.getTitle()));
+
+        // Then
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    void testGetPostAfterEvictShouldRunStatementsAgain() {
+        // Given
+        postService.getPost(post.getTitle());
+        postCache.evict(post.getId(), post.getTitle());
+
+        // When
+        long statements = countStatements(() -> postService.getPost(post.getTitle()));
+
+        // Then
+        assertThat(statements).isPositive();
+    }
+
+    @Test
+    void testGetPostAfterUpdatePostShouldReturnUpdatedPost() {
+        // Given
+        postService.getPost(post.getTitle());
+        postService.updatePost(post.getTitle(), PostUpdateRequest.builder().content("updated").build(), user);
+
+        // When
+        String content = postService.getPost(post.getTitle()).getPost().getContent();
+
+        // Then
+        assertThat(content).isEqualTo("updated");
+    }
+
+    @Test
+    void testUpdatePostShouldChangeVersionOfPost() {
+        // Given
+        //setUp already evicted the post once
+        ContentVersion before = postService.getPost(post.getTitle()).getVersion();
+
+        // When
+        postService.updatePost(post.getTitle(), PostUpdateRequest.builder().title("Renamed").build(), user);
+        //Version is changed with a bulk update, so the post in the persistence context still has the old one
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        ContentVersion after = postService.getPost("Renamed").getVersion();
+        assertThat(before.getEtag()).isEqualTo(post.getId() + "-1");
+        assertThat(after.getEtag()).isEqualTo(post.getId() + "-2");
+        assertThat(after.getLastModified()).isAfterOrEqualTo(before.getLastModified());
+    }
+
+    @Test
+    void testGetPostSecondCallShouldReturnSameVersionWithoutAnyStatements() {
+        // Given
+        ContentVersion version = postService.getPost(post.getTitle()).getVersion();
+
+        // When
+        long statements = countStatements(() -> assertThat(postService.getPost(post.getTitle()).getVersion())
+                .isSameAs(version));
+
+        // Then
+        assertThat(statements).isZero();
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.blog.service;
+
+import com.example.blog.config.CacheConfiguration;
+import com.example.blog.dto.PostRequest;
+import com.example.blog.dto.PostResponse;
+import com.example.blog.entity.*;
+import com.example.blog.search.CategoryNameIndex;
+import com.example.blog.search.PostSearchIndex;
+import com.example.blog.search.TagNameIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Checks that list endpoints run the same number of SQL statements no matter
+//how many posts they return (no N+1 when fetching categories and tags)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@Import({PostService.class, CategoryService.class, TagService.class, PostCache.class, PostIndexer.class,
+        PostSearchIndex.class, CategoryNameIndex.class, TagNameIndex.class, CacheConfiguration.class})
+class PostServiceQueryCountTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Category category;
+    private Tag tag;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .role(Role.USER)
+                .build());
+        category = entityManager.persist(Category.builder().name("category").build());
+        tag = entityManager.persist(Tag.builder().name("tag").build());
+    }
+
+    @Test
+    void testGetAllPostsShouldRunConstantNumberOfStatements() {
+        // Given
+        createPosts(1);
+        long onePost = countStatements(() -> postService.getAllPosts(null, 100));
+        createPosts(20);
+
+        // When
+        long manyPosts = countStatements(() -> postService.getAllPosts(null, 100));
+
+        // Then
+        assertThat(onePost).isEqualTo(3);
+        assertThat(manyPosts).isEqualTo(onePost);
+    }
+
+    @Test
+    void testGetAllPostsByCategoryShouldRunConstantNumberOfStatements() {
+        // Given
+        createPosts(1);
+        long onePost = countStatements(() -> postService.getAllPostsByCategory(category.getName(), null, 100));
+        createPosts(20);
+
+        // When
+        long manyPosts = countStatements(() -> postService.getAllPostsByCategory(category.getName(), null, 100));
+
+        // Then
+        assertThat(onePost).isEqualTo(4);
+        assertThat(manyPosts).isEqualTo(onePost);
+    }
+
+    @Test
+    void testGetAllPostsByTagShouldRunConstantNumberOfStatements() {
+        // Given
+        createPosts(1);
+        long onePost = countStatements(() -> postService.getAllPostsByTag(tag.getName(), null, 100));
+        createPosts(20);
+
+        // When
+        long manyPosts = countStatements(() -> postService.getAllPostsByTag(tag.getName(), null, 100));
+
+        // Then
+        assertThat(onePost).isEqualTo(4);
+        assertThat(manyPosts).isEqualTo(onePost);
+    }
+
+    @Test
+    void testGetAllPostSummariesShouldRunConstantNumberOfStatements() {
+        // Given
+        createPosts(1);
+        long onePost = countStatements(() -> postService.getAllPostSummaries(null, 100));
+        createPosts(20);
+
+        // When
+        long manyPosts = countStatements(() -> postService.getAllPostSummaries(null, 100));
+
+        // Then
+        assertThat(onePost).isEqualTo(3);
+        assertThat(manyPosts).isEqualTo(onePost);
+    }
+
+    @Test
+    void testGetAllPostsNextPageShouldRunSameNumberOfStatementsAsFirstPage() {
+        // Given
+        createPosts(30);
+        String next = postService.getAllPosts(null, 10).getNext();
+        long firstPage = countStatements(() -> postService.getAllPosts(null, 10));
+
+        // When
+        long secondPage = countStatements(() -> postService.getAllPosts(next, 10));
+
+        // Then
+        assertThat(secondPage).isEqualTo(firstPage);
+    }
+
+    @Test
+    void testGetAllPostsShouldReturnCategoriesAndTagsOfEveryPost() {
+        // Given
+        createPosts(3);
+
+        // When
+        List<PostResponse> expected = postService.getAllPosts(null, 100).getContent();
+
+        // Then
+        assertThat(expected).hasSize(3);
+        assertThat(expected).allSatisfy(post -> {
+            assertThat(post.getCategories()).containsExactly(category.getName());
+            assertThat(post.getTags()).containsExactly(tag.getName());
+        });
+    }
+
+    @Test
+    void testCreatePostInsertsShouldBeBatched() {
+        // Given
+        List<String> tagNames = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tagNames.add(entityManager.persist(Tag.builder().name("tag " + i).build()).getName());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        //First post also fetches ids from the sequences, so it is not counted
+        createPost("First", Set.of(tag.getName()));
+        long oneTag = countStatements(() -> createPost("One tag", Set.of(tagNames.get(0))));
+
+        // When
+        long tenTags = countStatements(() -> createPost("Ten tags", Set.copyOf(tagNames)));
+
+        // Then
+        //All tags are found with one query and inserts of post tags are sent in one batch
+        assertThat(tenTags).isEqualTo(oneTag);
+    }
+
+    @Test
+    void testCreatePostNewTagsShouldBeInsertedInOneBatch() {
+        // Given
+        List<String> tagNames = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tagNames.add("new tag " + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        //First post also fetches ids from the sequences, so it is not counted
+        createPost("First", Set.of("first tag"));
+        long oneNewTag = countStatements(() -> createPost("One new tag", Set.of("one new tag")));
+
+        // When
+        long tenNewTags = countStatements(() -> createPost("Ten new tags", Set.copyOf(tagNames)));
+
+        // Then
+        assertThat(tenNewTags).isEqualTo(oneNewTag);
+    }
+
+    private PostResponse createPost(String title, Set<String> tags) {
+        var response = postService.createPost(PostRequest.builder()
+                .title(title)
+                .content("content")
+                .categories(Set.of(category.getName()))
+                .tags(tags)
+                .build(), user);
+        //Test is one transaction, so we have to flush to actually send the inserts
+        entityManager.flush();
+        return response;
+    }
+
+    private void createPosts(int count) {
+        //Entities may have been detached by the previous clear(), so we load them again
+        user = entityManager.find(User.class, user.getId());
+        category = entityManager.find(Category.class, category.getId());
+        tag = entityManager.find(Tag.class, tag.getId());
+        long existing = entityManager.getEntityManager()
+                .createQuery("select count(p) from Post p", Long.class)
+                .getSingleResult();
+
+        for (int i = 0; i < count; i++) {
+            Post post = entityManager.persist(Post.builder()
+                    .title("Post " + (existing + i))
+                    .content("content")
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .user(user)
+                    .build());
+            entityManager.persist(PostCategory.builder()
+                    .postCategoryId(new PostCategoryId(post.getId(), category.getId()))
+                    .post(post)
+                    .category(category)
+                    .build());
+            entityManager.persist(PostTag.builder()
+                    .postTagId(new PostTagId(post.getId(), tag.getId()))
+                    .post(post)
+                    .tag(tag)
+                    .build());
+        }
+
+        //We clear the persistence context, so nothing is served from it and every
+        //category/tag really has to be fetched from the database
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private <T> long countStatements(Supplier<T> action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
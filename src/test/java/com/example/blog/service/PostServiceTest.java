@@ -1,27 +1,36 @@
 package com.example.blog.service;
 
+import com.example.blog.dto.PageResponse;
 import com.example.blog.dto.PostRequest;
 import com.example.blog.dto.PostResponse;
+import com.example.blog.dto.PostSearchResponse;
+import com.example.blog.dto.PostSummaryResponse;
 import com.example.blog.dto.PostUpdateRequest;
+import com.example.blog.dto.PostView;
 import com.example.blog.entity.*;
 import com.example.blog.exception.CategoryNotFoundException;
+import com.example.blog.exception.InvalidCursorException;
 import com.example.blog.exception.PostNotFoundException;
 import com.example.blog.exception.PostTitleAlreadyExistsException;
 import com.example.blog.exception.TagNotFoundException;
+import com.example.blog.projection.PostNameView;
+import com.example.blog.projection.PostSummaryView;
+import com.example.blog.projection.PostVersionView;
 import com.example.blog.repository.*;
-import com.example.blog.security.JwtService;
+import com.example.blog.search.PostSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,17 +39,9 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class PostServiceTest {
 
-    private static final String TOKEN = "bearer token";
-
     @Mock
     private PostRepository postRepository;
 
-    @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private JwtService jwtService;
-
     @Mock
     private CategoryRepository categoryRepository;
 
@@ -53,6 +54,24 @@ class PostServiceTest {
     @Mock
     private PostTagRepository postTagRepository;
 
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PostCache postCache;
+
+    @Mock
+    private PostIndexer postIndexer;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private TagService tagService;
+
     @InjectMocks
     private PostService postService;
 
@@ -72,7 +91,6 @@ class PostServiceTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
 
@@ -131,15 +149,12 @@ class PostServiceTest {
     @Test
     void testCreatePostOptionalTagPresentShouldReturnPostResponse() {
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
         when(postRepository.existsByTitleAndUser(postRequest.getTitle(), user)).thenReturn(false);
-        when(categoryRepository.existsByName(postRequest.getCategories().iterator().next())).thenReturn(true);
-        when(categoryRepository.findByName(postRequest.getCategories().iterator().next())).thenReturn(category);
-        when(tagRepository.findByName(postRequest.getTags().iterator().next())).thenReturn(Optional.of(tag));
+        when(categoryService.findCategories(postRequest.getCategories())).thenReturn(List.of(category));
+        when(tagService.findOrCreateTags(postRequest.getTags())).thenReturn(List.of(tag));
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        PostResponse expected = postService.createPost(postRequest, TOKEN);
+        PostResponse expected = postService.createPost(postRequest, user);
 
         // Then
         assertThat(expected).isNotNull();
@@ -147,6 +162,8 @@ class PostServiceTest {
         assertThat(expected.getContent()).isEqualTo(post.getContent());
         assertThat(expected.getCreatedAt().withNano(0)).isEqualTo(post.getCreatedAt());
         assertThat(expected.getUpdatedAt().withNano(0)).isEqualTo(post.getUpdatedAt());
+        assertThat(expected.getCategories()).containsExactly(category.getName());
+        assertThat(expected.getTags()).containsExactly(tag.getName());
     }
 
     @Test
@@ -158,16 +175,12 @@ class PostServiceTest {
         postRequest.getTags().add(newTag.getName());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
         when(postRepository.existsByTitleAndUser(postRequest.getTitle(), user)).thenReturn(false);
-        when(categoryRepository.existsByName(postRequest.getCategories().iterator().next())).thenReturn(true);
-        when(categoryRepository.findByName(postRequest.getCategories().iterator().next())).thenReturn(category);
-        when(tagRepository.findByName(newTag.getName())).thenReturn(Optional.empty());
-        when(tagRepository.save(any(Tag.class))).thenReturn(newTag);
+        when(categoryService.findCategories(postRequest.getCategories())).thenReturn(List.of(category));
+        when(tagService.findOrCreateTags(postRequest.getTags())).thenReturn(List.of(newTag));
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        PostResponse expected = postService.createPost(postRequest, TOKEN);
+        PostResponse expected = postService.createPost(postRequest, user);
 
         // Then
         assertThat(expected).isNotNull();
@@ -180,12 +193,10 @@ class PostServiceTest {
     @Test
     void testCreatePostShouldThrowPostTitleAlreadyExistsException() {
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
         when(postRepository.existsByTitleAndUser(postRequest.getTitle(), user)).thenReturn(true);
 
         // Then
-        assertThatThrownBy(() -> postService.createPost(postRequest, TOKEN))
+        assertThatThrownBy(() -> postService.createPost(postRequest, user))
                 .isInstanceOf(PostTitleAlreadyExistsException.class)
                 .hasMessageContaining("Post with that title already exists, please use different title");
     }
@@ -193,13 +204,13 @@ class PostServiceTest {
     @Test
     void testCreatePostShouldThrowCategoryNotFoundException() {
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
         when(postRepository.existsByTitleAndUser(postRequest.getTitle(), user)).thenReturn(false);
-        when(categoryRepository.existsByName(postRequest.getCategories().iterator().next())).thenReturn(false);
+        when(categoryService.findCategories(postRequest.getCategories())).thenThrow(new CategoryNotFoundException(
+                "Category by the name " + postRequest.getCategories().iterator().next() + " not found!"
+        ));
 
         // Then
-        assertThatThrownBy(() -> postService.createPost(postRequest, TOKEN))
+        assertThatThrownBy(() -> postService.createPost(postRequest, user))
                 .isInstanceOf(CategoryNotFoundException.class)
                 .hasMessageContaining(
                         "Category by the name " + postRequest.getCategories().iterator().next() + " not found!"
@@ -212,13 +223,12 @@ class PostServiceTest {
         String postTitle = "Title";
 
         // When
-        when(postRepository.existsByTitle(postTitle)).thenReturn(true);
-        when(postRepository.findByTitle(postTitle)).thenReturn(post);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
 
-        PostResponse expected = postService.getPost(postTitle);
+        VersionedPost expected = postService.getPost(postTitle);
 
         // Then
-        assertThat(expected).isNotNull();
+        assertThat(expected.getPost()).isNotNull();
     }
 
     @Test
@@ -227,7 +237,7 @@ class PostServiceTest {
         String postTitle = "Title Not Found";
 
         // When
-        when(postRepository.existsByTitle(postTitle)).thenReturn(false);
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> postService.getPost(postTitle))
@@ -235,16 +245,138 @@ class PostServiceTest {
                 .hasMessageContaining("Post with the title '" + postTitle + "' not found!");
     }
 
+    @Test
+    void testGetPostShouldReturnVersionOfSamePost() {
+        // Given
+        String postTitle = "Title";
+        post.setId(1L);
+        post.setVersion(3);
+        post.setModifiedAt(post.getUpdatedAt());
+
+        // When
+        when(postRepository.findByTitle(postTitle)).thenReturn(Optional.of(post));
+
+        ContentVersion expected = postService.getPost(postTitle).getVersion();
+
+        // Then
+        assertThat(expected.getEtag()).isEqualTo("1-3");
+        assertThat(expected.getLastModified()).isEqualTo(post.getModifiedAt());
+    }
+
+    @Test
+    void testGetAllPostsVersionShouldChangeWhenPostChanges() {
+        // Given
+        post.setId(1L);
+        PageRequest pageRequest = PageRequest.of(0, 21);
+        when(postRepository.findVersionPage(PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), pageRequest))
+                .thenReturn(List.of(postVersion(post)));
+        ContentVersion before = postService.getAllPostsVersion(null, 20, PostView.FULL);
+        post.setVersion(post.getVersion() + 1);
+
+        // When
+        ContentVersion expected = postService.getAllPostsVersion(null, 20, PostView.FULL);
+
+        // Then
+        assertThat(expected.getEtag()).isNotEqualTo(before.getEtag());
+        assertThat(postService.getAllPostsVersion(null, 20, PostView.FULL).getEtag()).isEqualTo(expected.getEtag());
+    }
+
+    @Test
+    void testGetAllPostsVersionShouldBeDifferentForFullAndSummaryView() {
+        // Given
+        post.setId(1L);
+        when(postRepository.findVersionPage(PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21)))
+                .thenReturn(List.of(postVersion(post)));
+
+        // When
+        ContentVersion full = postService.getAllPostsVersion(null, 20, PostView.FULL);
+        ContentVersion summary = postService.getAllPostsVersion(null, 20, PostView.SUMMARY);
+
+        // Then
+        assertThat(full.getEtag()).isNotEqualTo(summary.getEtag());
+    }
+
     @Test
     void getAllPosts() {
         // When
-        when(postRepository.findAll()).thenReturn(List.of(post));
+        when(postRepository.findPage(PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21))).thenReturn(List.of(post));
 
-        List<PostResponse> expected = postService.getAllPosts();
+        PageResponse<PostResponse> expected = postService.getAllPosts(null, 20);
 
         // Then
         assertThat(expected).isNotNull();
-        assertThat(expected.size()).isEqualTo(1);
+        assertThat(expected.getContent().size()).isEqualTo(1);
+        assertThat(expected.getNext()).isNull();
+    }
+
+    @Test
+    void testGetAllPostSummariesShouldReturnExcerptInsteadOfContent() {
+        // Given
+        PostSummaryView summary = postSummary(post);
+
+        // When
+        when(postRepository.findSummaryPage(
+                PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21)
+        )).thenReturn(List.of(summary));
+
+        PageResponse<PostSummaryResponse> expected = postService.getAllPostSummaries(null, 20);
+
+        // Then
+        assertThat(expected.getContent().size()).isEqualTo(1);
+        assertThat(expected.getContent().get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.getContent().get(0).getExcerpt()).isEqualTo(post.getContent());
+        assertThat(expected.getNext()).isNull();
+    }
+
+    @Test
+    void testGetAllPostsMorePostsThanPageSizeShouldReturnNextCursor() {
+        // Given
+        post.setId(2L);
+        Post olderPost = Post.builder()
+                .id(1L)
+                .title("Older")
+                .content("older")
+                .createdAt(post.getCreatedAt().minusDays(1))
+                .updatedAt(post.getUpdatedAt().minusDays(1))
+                .user(user)
+                .build();
+
+        // When
+        when(postRepository.findPage(PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 2))).thenReturn(List.of(post, olderPost));
+
+        PageResponse<PostResponse> expected = postService.getAllPosts(null, 1);
+
+        // Then
+        assertThat(expected.getContent().size()).isEqualTo(1);
+        assertThat(expected.getContent().get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.getNext()).isEqualTo(new PageCursor(post.getCreatedAt(), post.getId()).encode());
+    }
+
+    @Test
+    void testGetAllPostsWithCursorShouldReturnPostsAfterCursor() {
+        // Given
+        PageCursor cursor = new PageCursor(post.getCreatedAt().plusDays(1), 5L);
+
+        // When
+        when(postRepository.findPage(cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, 21)))
+                .thenReturn(List.of(post));
+
+        PageResponse<PostResponse> expected = postService.getAllPosts(cursor.encode(), 20);
+
+        // Then
+        assertThat(expected.getContent().size()).isEqualTo(1);
+        assertThat(expected.getNext()).isNull();
+    }
+
+    @Test
+    void testGetAllPostsShouldThrowInvalidCursorException() {
+        // Given
+        String cursor = "invalid";
+
+        // Then
+        assertThatThrownBy(() -> postService.getAllPosts(cursor, 20))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("Cursor '" + cursor + "' is not valid!");
     }
 
     @Test
@@ -253,17 +385,15 @@ class PostServiceTest {
         String postTitleToUpdate = "Title";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postTitleToUpdate, user)).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postTitleToUpdate, user)).thenReturn(post);
+        when(postRepository.findByTitleAndUser(postTitleToUpdate, user)).thenReturn(Optional.of(post));
         when(postRepository.existsByTitleAndUser(postUpdateRequest.getTitle(), user)).thenReturn(false);
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        PostResponse expected = postService.updatePost(postTitleToUpdate, postUpdateRequest, TOKEN);
+        PostResponse expected = postService.updatePost(postTitleToUpdate, postUpdateRequest, user);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(postCache).evict(post.getId(), List.of(postTitleToUpdate, postUpdateRequest.getTitle()));
     }
 
     @Test
@@ -273,13 +403,10 @@ class PostServiceTest {
         postUpdateRequest.setTitle(null);
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postTitleToUpdate, user)).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postTitleToUpdate, user)).thenReturn(post);
+        when(postRepository.findByTitleAndUser(postTitleToUpdate, user)).thenReturn(Optional.of(post));
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        PostResponse expected = postService.updatePost(postTitleToUpdate, postUpdateRequest, TOKEN);
+        PostResponse expected = postService.updatePost(postTitleToUpdate, postUpdateRequest, user);
 
         // Then
         assertThat(expected).isNotNull();
@@ -291,12 +418,10 @@ class PostServiceTest {
         String postTitleToUpdate = "Title";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postTitleToUpdate, user)).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postTitleToUpdate, user)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> postService.updatePost(postTitleToUpdate, postUpdateRequest, TOKEN))
+        assertThatThrownBy(() -> postService.updatePost(postTitleToUpdate, postUpdateRequest, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postTitleToUpdate + "' not found!");
     }
@@ -307,14 +432,11 @@ class PostServiceTest {
         String postTitleToUpdate = "Title";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postTitleToUpdate, user)).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postTitleToUpdate, user)).thenReturn(post);
+        when(postRepository.findByTitleAndUser(postTitleToUpdate, user)).thenReturn(Optional.of(post));
         when(postRepository.existsByTitleAndUser(postUpdateRequest.getTitle(), user)).thenReturn(true);
 
         // Then
-        assertThatThrownBy(() -> postService.updatePost(postTitleToUpdate, postUpdateRequest, TOKEN))
+        assertThatThrownBy(() -> postService.updatePost(postTitleToUpdate, postUpdateRequest, user))
                 .isInstanceOf(PostTitleAlreadyExistsException.class)
                 .hasMessageContaining(
                         "Post with title '" +
@@ -327,17 +449,35 @@ class PostServiceTest {
     void testDeletePostShouldReturnString() {
         // Given
         String postTitleToDelete = "Title";
+        post.setId(1L);
+        PostNameView tag = new PostNameView() {
+            @Override
+            public Long getPostId() {
+                return post.getId();
+            }
+
+            @Override
+            public String getName() {
+                return "tag";
+            }
+        };
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postTitleToDelete, user)).thenReturn(true);
-        doNothing().when(postRepository).deleteByTitleAndUser(postTitleToDelete, user);
+        when(postRepository.findIdByTitleAndUser(postTitleToDelete, user)).thenReturn(Optional.of(post.getId()));
+        when(postTagRepository.findNamesByPostIds(List.of(post.getId()))).thenReturn(List.of(tag));
+        when(postRepository.deleteByTitleAndUser(postTitleToDelete, user)).thenReturn(1);
 
-        String expected = postService.deletePost(postTitleToDelete, TOKEN);
+        String expected = postService.deletePost(postTitleToDelete, user);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(commentRepository).deleteAllByPostId(post.getId());
+        verify(postCategoryRepository).deleteAllByPostId(post.getId());
+        verify(postTagRepository).deleteAllByPostId(post.getId());
+        verify(postIndexer).reindex(post.getId());
+        verify(postCache).evictDeleted(postTitleToDelete);
+        verify(tagService).decrementPostCounts(List.of("tag"));
+        verify(categoryService).decrementPostCounts(List.of());
     }
 
     @Test
@@ -346,14 +486,29 @@ class PostServiceTest {
         String postTitleToDelete = "Title";
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postTitleToDelete, user)).thenReturn(false);
+        when(postRepository.findIdByTitleAndUser(postTitleToDelete, user)).thenReturn(Optional.empty());
+
+        // Then
+        assertThatThrownBy(() -> postService.deletePost(postTitleToDelete, user))
+                .isInstanceOf(PostNotFoundException.class)
+                .hasMessageContaining("Post with the title '" + postTitleToDelete + "' not found!");
+    }
+
+    @Test
+    void testDeletePostAlreadyDeletedShouldThrowPostNotFoundException() {
+        // Given
+        String postTitleToDelete = "Title";
+        post.setId(1L);
+
+        // When
+        when(postRepository.findIdByTitleAndUser(postTitleToDelete, user)).thenReturn(Optional.of(post.getId()));
+        when(postRepository.deleteByTitleAndUser(postTitleToDelete, user)).thenReturn(0);
 
         // Then
-        assertThatThrownBy(() -> postService.deletePost(postTitleToDelete, TOKEN))
+        assertThatThrownBy(() -> postService.deletePost(postTitleToDelete, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postTitleToDelete + "' not found!");
+        verify(postCache, never()).evictDeleted(postTitleToDelete);
     }
 
     @Test
@@ -362,16 +517,34 @@ class PostServiceTest {
         String categoryName = "category";
 
         // When
-        when(categoryRepository.existsByName(categoryName)).thenReturn(true);
-        when(categoryRepository.findByName(categoryName)).thenReturn(category);
-        when(postCategoryRepository.findByCategory(category)).thenReturn(List.of(postCategory));
+        when(categoryRepository.findByName(categoryName)).thenReturn(Optional.of(category));
+        when(postRepository.findPageByCategory(category, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21))).thenReturn(List.of(post));
 
-        List<PostResponse> expected = postService.getAllPostsByCategory(categoryName);
+        PageResponse<PostResponse> expected = postService.getAllPostsByCategory(categoryName, null, 20);
 
         // Then
         assertThat(expected).isNotNull();
-        assertThat(expected.get(0).getTitle()).isEqualTo(post.getTitle());
-        assertThat(expected.get(0).getContent()).isEqualTo(post.getContent());
+        assertThat(expected.getContent().get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.getContent().get(0).getContent()).isEqualTo(post.getContent());
+    }
+
+    @Test
+    void testGetAllPostSummariesByCategoryShouldReturnPostSummaryResponseList() {
+        // Given
+        String categoryName = "category";
+        PostSummaryView summary = postSummary(post);
+
+        // When
+        when(categoryRepository.findByName(categoryName)).thenReturn(Optional.of(category));
+        when(postRepository.findSummaryPageByCategory(
+                category, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21)
+        )).thenReturn(List.of(summary));
+
+        PageResponse<PostSummaryResponse> expected = postService.getAllPostSummariesByCategory(categoryName, null, 20);
+
+        // Then
+        assertThat(expected.getContent().get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.getContent().get(0).getExcerpt()).isEqualTo(post.getContent());
     }
 
     @Test
@@ -380,10 +553,10 @@ class PostServiceTest {
         String categoryName = "category";
 
         // When
-        when(categoryRepository.existsByName(categoryName)).thenReturn(false);
+        when(categoryRepository.findByName(categoryName)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> postService.getAllPostsByCategory(categoryName))
+        assertThatThrownBy(() -> postService.getAllPostsByCategory(categoryName, null, 20))
                 .isInstanceOf(CategoryNotFoundException.class)
                 .hasMessageContaining("Category by the name " + categoryName + " not found!");
     }
@@ -394,16 +567,34 @@ class PostServiceTest {
         String tagName = "tag";
 
         // When
-        when(tagRepository.existsByName(tagName)).thenReturn(true);
-        when(tagRepository.findTagByName(tagName)).thenReturn(tag);
-        when(postTagRepository.findByTag(tag)).thenReturn(List.of(postTag));
+        when(tagRepository.findByName(tagName)).thenReturn(Optional.of(tag));
+        when(postRepository.findPageByTag(tag, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21))).thenReturn(List.of(post));
 
-        List<PostResponse> expected = postService.getAllPostsByTag(tagName);
+        PageResponse<PostResponse> expected = postService.getAllPostsByTag(tagName, null, 20);
 
         // Then
         assertThat(expected).isNotNull();
-        assertThat(expected.get(0).getTitle()).isEqualTo(post.getTitle());
-        assertThat(expected.get(0).getContent()).isEqualTo(post.getContent());
+        assertThat(expected.getContent().get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.getContent().get(0).getContent()).isEqualTo(post.getContent());
+    }
+
+    @Test
+    void testGetAllPostSummariesByTagShouldReturnPostSummaryResponseList() {
+        // Given
+        String tagName = "tag";
+        PostSummaryView summary = postSummary(post);
+
+        // When
+        when(tagRepository.findByName(tagName)).thenReturn(Optional.of(tag));
+        when(postRepository.findSummaryPageByTag(
+                tag, PageCursor.FIRST_PAGE.getCreatedAt(), PageCursor.FIRST_PAGE.getId(), PageRequest.of(0, 21)
+        )).thenReturn(List.of(summary));
+
+        PageResponse<PostSummaryResponse> expected = postService.getAllPostSummariesByTag(tagName, null, 20);
+
+        // Then
+        assertThat(expected.getContent().get(0).getTitle()).isEqualTo(post.getTitle());
+        assertThat(expected.getContent().get(0).getExcerpt()).isEqualTo(post.getContent());
     }
 
     @Test
@@ -412,11 +603,112 @@ class PostServiceTest {
         String tagName = "tag";
 
         // When
-        when(tagRepository.existsByName(tagName)).thenReturn(false);
+        when(tagRepository.findByName(tagName)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> postService.getAllPostsByTag(tagName))
+        assertThatThrownBy(() -> postService.getAllPostsByTag(tagName, null, 20))
                 .isInstanceOf(TagNotFoundException.class)
                 .hasMessageContaining("Tag by the name " + tagName + " not found!");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchPostsMoreResultsThanPageSizeShouldReturnNextCursor() {
+        // Given
+        PostSearchResponse first = PostSearchResponse.builder().title("First").build();
+        PostSearchResponse second = PostSearchResponse.builder().title("Second").build();
+
+        // When
+        when(postSearchIndex.search("query", "category", "tag", 0, 2)).thenReturn(List.of(first, second));
+
+        PageResponse<PostSearchResponse> expected = postService.searchPosts("query", "category", "tag", null, 1);
+
+        // Then
+        assertThat(expected.getContent()).containsExactly(first);
+        assertThat(expected.getNext()).isEqualTo("1");
+    }
+
+    @Test
+    void testSearchPostsWithCursorShouldSkipPreviousPages() {
+        // Given
+        PostSearchResponse result = PostSearchResponse.builder().title("Result").build();
+
+        // When
+        when(postSearchIndex.search("query", null, null, 20, 21)).thenReturn(List.of(result));
+
+        PageResponse<PostSearchResponse> expected = postService.searchPosts("query", null, null, "20", 20);
+
+        // Then
+        assertThat(expected.getContent()).containsExactly(result);
+        assertThat(expected.getNext()).isNull();
+    }
+
+    @Test
+    void testSearchPostsPastMaxResultsShouldReturnEmptyPage() {
+        // When
+        PageResponse<PostSearchResponse> expected = postService.searchPosts("query", null, null, "1000", 20);
+
+        // Then
+        assertThat(expected.getContent()).isEmpty();
+        assertThat(expected.getNext()).isNull();
+        verifyNoInteractions(postSearchIndex);
+    }
+
+    @Test
+    void testSearchPostsShouldThrowInvalidCursorException() {
+        // Given
+        String cursor = "-1";
+
+        // Then
+        assertThatThrownBy(() -> postService.searchPosts("query", null, null, cursor, 20))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessageContaining("Cursor '" + cursor + "' is not valid!");
+    }
+
+    private PostVersionView postVersion(Post post) {
+        return new PostVersionView() {
+            @Override
+            public Long getId() {
+                return post.getId();
+            }
+
+            @Override
+            public long getVersion() {
+                return post.getVersion();
+            }
+
+            @Override
+            public LocalDateTime getModifiedAt() {
+                return post.getModifiedAt();
+            }
+        };
+    }
+
+    private PostSummaryView postSummary(Post post) {
+        return new PostSummaryView() {
+            @Override
+            public Long getId() {
+                return post.getId();
+            }
+
+            @Override
+            public String getTitle() {
+                return post.getTitle();
+            }
+
+            @Override
+            public String getExcerpt() {
+                return post.getContent();
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return post.getCreatedAt();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return post.getUpdatedAt();
+            }
+        };
+    }
+}
@@ -1,23 +1,27 @@
 package com.example.blog.service;
 
 import com.example.blog.dto.TagDto;
+import com.example.blog.dto.NameCountResponse;
 import com.example.blog.entity.*;
 import com.example.blog.exception.*;
+import com.example.blog.projection.NameCountView;
 import com.example.blog.repository.PostRepository;
 import com.example.blog.repository.PostTagRepository;
 import com.example.blog.repository.TagRepository;
-import com.example.blog.repository.UserRepository;
-import com.example.blog.security.JwtService;
+import com.example.blog.search.TagNameIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,8 +30,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class TagServiceTest {
 
-    private static final String TOKEN = "bearer token";
-
     @Mock
     private TagRepository tagRepository;
 
@@ -35,13 +37,16 @@ class TagServiceTest {
     private PostRepository postRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private PostTagRepository postTagRepository;
 
     @Mock
-    private JwtService jwtService;
+    private PostCache postCache;
 
     @Mock
-    private PostTagRepository postTagRepository;
+    private PostIndexer postIndexer;
+
+    @Mock
+    private TagNameIndex tagNameIndex;
 
     @InjectMocks
     private TagService tagService;
@@ -59,7 +64,6 @@ class TagServiceTest {
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
                 .password("Test.123")
-                .repeatPassword("Test.123")
                 .role(Role.USER)
                 .build();
 
@@ -93,6 +97,7 @@ class TagServiceTest {
         // Then
         assertThat(expected).isNotNull();
         assertThat(expected.getName()).isEqualTo(tag.getName());
+        verify(tagNameIndex).add(tagDto.getName());
     }
 
     @Test
@@ -134,6 +139,53 @@ class TagServiceTest {
         assertThat(expected).isNotNull();
     }
 
+    @Test
+    void testAutocompleteTagsShouldLimitSize() {
+        // Given
+        List<NameCountResponse> names = List.of(new NameCountResponse(tag.getName(), 1));
+
+        // When
+        when(tagNameIndex.findByPrefix("ta", 50)).thenReturn(names);
+
+        List<NameCountResponse> expected = tagService.autocompleteTags("ta", 1000);
+
+        // Then
+        assertThat(expected).isEqualTo(names);
+    }
+
+    @Test
+    void testGetPopularTagsShouldReturnNamesWithPostCounts() {
+        // Given
+        NameCountView nameCount = new NameCountView() {
+            @Override
+            public String getName() {
+                return tag.getName();
+            }
+
+            @Override
+            public long getPostCount() {
+                return 3;
+            }
+        };
+
+        // When
+        when(tagRepository.findPopular(PageRequest.of(0, 50))).thenReturn(List.of(nameCount));
+
+        List<NameCountResponse> expected = tagService.getPopularTags(1000);
+
+        // Then
+        assertThat(expected).isEqualTo(List.of(new NameCountResponse(tag.getName(), 3)));
+    }
+
+    @Test
+    void testIncrementPostCountsWithoutNamesShouldNotUpdateDatabase() {
+        // When
+        tagService.incrementPostCounts(List.of());
+
+        // Then
+        verifyNoInteractions(tagRepository, tagNameIndex);
+    }
+
     @Test
     void testGetAllTagsShouldReturnTagDtoList() {
         // When
@@ -152,14 +204,15 @@ class TagServiceTest {
         String tagToUpdate = "tag";
 
         // When
-        when(tagRepository.existsByName(anyString())).thenReturn(true, false);
-        when(tagRepository.findTagByName(tagToUpdate)).thenReturn(tag);
+        when(tagRepository.findByName(tagToUpdate)).thenReturn(Optional.of(tag));
+        when(tagRepository.existsByName(tagDto.getName())).thenReturn(false);
         when(tagRepository.save(any(Tag.class))).thenReturn(tag);
 
         String expected = tagService.updateTag(tagToUpdate, tagDto);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(postCache).evictByTag(tag.getId());
     }
 
     @Test
@@ -168,7 +221,7 @@ class TagServiceTest {
         String tagToUpdate = "tag";
 
         // When
-        when(tagRepository.existsByName(tagToUpdate)).thenReturn(false);
+        when(tagRepository.findByName(tagToUpdate)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> tagService.updateTag(tagToUpdate, tagDto))
@@ -182,7 +235,8 @@ class TagServiceTest {
         String tagToUpdate = "tag";
 
         // When
-        when(tagRepository.existsByName(anyString())).thenReturn(true, true);
+        when(tagRepository.findByName(tagToUpdate)).thenReturn(Optional.of(tag));
+        when(tagRepository.existsByName(tagDto.getName())).thenReturn(true);
 
         // Then
         assertThatThrownBy(() -> tagService.updateTag(tagToUpdate, tagDto))
@@ -194,15 +248,18 @@ class TagServiceTest {
     void testDeleteTagShouldReturnString() {
         // Given
         String tagToDelete = "tag";
+        tag.setId(1L);
 
         // When
-        when(tagRepository.existsByName(tagToDelete)).thenReturn(true);
-        doNothing().when(tagRepository).deleteByName(tagToDelete);
+        when(tagRepository.findByName(tagToDelete)).thenReturn(Optional.of(tag));
 
         String expected = tagService.deleteTag(tagToDelete);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(postTagRepository).deleteAllByTagId(tag.getId());
+        verify(tagRepository).deleteAllByIdInBatch(List.of(tag.getId()));
+        verify(postCache).evictByTag(tag.getId());
     }
 
     @Test
@@ -211,7 +268,7 @@ class TagServiceTest {
         String tagToDelete = "tag";
 
         // When
-        when(tagRepository.existsByName(tagToDelete)).thenReturn(false);
+        when(tagRepository.findByName(tagToDelete)).thenReturn(Optional.empty());
 
         // Then
         assertThatThrownBy(() -> tagService.deleteTag(tagToDelete))
@@ -226,19 +283,17 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddTag, user)).thenReturn(true);
-        when(tagRepository.existsByName(tagDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postToAddTag, user)).thenReturn(post);
-        when(tagRepository.findTagByName(tagDto.getName())).thenReturn(tag);
+        when(postRepository.findByTitleAndUser(postToAddTag, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findByName(tagDto.getName())).thenReturn(Optional.of(tag));
         when(postTagRepository.existsByPostAndTag(post, tag)).thenReturn(false);
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        String expected = tagService.addTagToPost(postToAddTag, tagDto, TOKEN);
+        String expected = tagService.addTagToPost(postToAddTag, tagDto, user);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(tagRepository).addToPostCount(List.of(tag.getName()), 1);
+        verify(tagNameIndex).addPost(List.of(tag.getName()));
     }
 
     @Test
@@ -248,17 +303,13 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddTag, user)).thenReturn(true);
-        when(tagRepository.existsByName(tagDto.getName())).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postToAddTag, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findByName(tagDto.getName())).thenReturn(Optional.empty());
         when(tagRepository.save(any(Tag.class))).thenReturn(tag);
-        when(postRepository.findByTitleAndUser(postToAddTag, user)).thenReturn(post);
-        when(tagRepository.findTagByName(tagDto.getName())).thenReturn(tag);
         when(postTagRepository.existsByPostAndTag(post, tag)).thenReturn(false);
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        String expected = tagService.addTagToPost(postToAddTag, tagDto, TOKEN);
+        String expected = tagService.addTagToPost(postToAddTag, tagDto, user);
 
         // Then
         assertThat(expected).isNotNull();
@@ -271,12 +322,10 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddTag, user)).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postToAddTag, user)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> tagService.addTagToPost(postToAddTag, tagDto, TOKEN))
+        assertThatThrownBy(() -> tagService.addTagToPost(postToAddTag, tagDto, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postToAddTag + "' not found!");
     }
@@ -288,22 +337,82 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToAddTag, user)).thenReturn(true);
-        when(tagRepository.existsByName(tagDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postToAddTag, user)).thenReturn(post);
-        when(tagRepository.findTagByName(tagDto.getName())).thenReturn(tag);
+        when(postRepository.findByTitleAndUser(postToAddTag, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findByName(tagDto.getName())).thenReturn(Optional.of(tag));
         when(postTagRepository.existsByPostAndTag(post, tag)).thenReturn(true);
 
         // Then
-        assertThatThrownBy(() -> tagService.addTagToPost(postToAddTag, tagDto, TOKEN))
+        assertThatThrownBy(() -> tagService.addTagToPost(postToAddTag, tagDto, user))
                 .isInstanceOf(PostAlreadyContainsThatTagException.class)
                 .hasMessageContaining(
                         "Post '" + postToAddTag + "' already contains tag '" + tagDto.getName() + "'"
                 );
     }
 
+    @Test
+    void testAddTagsToPostShouldAddAllTags() {
+        // Given
+        String postToAddTags = "Test";
+        post.setId(1L);
+        post.setPostTags(new ArrayList<>());
+        tag.setId(1L);
+        Tag otherTag = Tag.builder().id(2L).name("other").build();
+        List<TagDto> request = List.of(tagDto, new TagDto(otherTag.getName()));
+
+        // When
+        when(postRepository.findByTitleAndUser(postToAddTags, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findAllByNameIn(Set.of(tag.getName(), otherTag.getName()))).thenReturn(List.of(otherTag, tag));
+
+        String expected = tagService.addTagsToPost(postToAddTags, request, user);
+
+        // Then
+        assertThat(expected).isEqualTo("All tags added to the post '" + postToAddTags + "'");
+        assertThat(post.getPostTags()).extracting(PostTag::getTag).containsExactly(tag, otherTag);
+        verify(postRepository).save(post);
+        verify(postCache).evict(post.getId(), postToAddTags);
+    }
+
+    @Test
+    void testAddTagsToPostShouldThrowPostAlreadyContainsThatTagException() {
+        // Given
+        String postToAddTags = "Test";
+        post.setId(1L);
+        tag.setId(1L);
+        post.setPostTags(new ArrayList<>(List.of(PostTag.builder()
+                .postTagId(new PostTagId(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build())));
+
+        // When
+        when(postRepository.findByTitleAndUser(postToAddTags, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findAllByNameIn(Set.of(tag.getName()))).thenReturn(List.of(tag));
+
+        // Then
+        assertThatThrownBy(() -> tagService.addTagsToPost(postToAddTags, List.of(tagDto), user))
+                .isInstanceOf(PostAlreadyContainsThatTagException.class)
+                .hasMessageContaining("Post '" + postToAddTags + "' already contains tag '" + tag.getName() + "'");
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
+    @Test
+    void testFindOrCreateTagsShouldCreateOnlyMissingTags() {
+        // Given
+        Tag newTag = Tag.builder().name("new").build();
+
+        // When
+        when(tagRepository.findAllByNameIn(Set.of(tag.getName(), newTag.getName()))).thenReturn(List.of(tag));
+        when(tagRepository.saveAll(anyList())).thenReturn(List.of(newTag));
+
+        List<Tag> expected = tagService.findOrCreateTags(List.of(newTag.getName(), tag.getName(), newTag.getName()));
+
+        // Then
+        assertThat(expected).containsExactly(newTag, tag);
+        verify(tagRepository).saveAll(argThat(tags ->
+                tags instanceof List<Tag> list && list.size() == 1 && list.get(0).getName().equals(newTag.getName())
+        ));
+    }
+
     @Test
     void testDeleteTagFromPostShouldReturnString() {
         // Given
@@ -311,20 +420,17 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToDeleteTag, user)).thenReturn(true);
-        when(tagRepository.existsByName(tagDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postToDeleteTag, user)).thenReturn(post);
-        when(tagRepository.findTagByName(tagDto.getName())).thenReturn(tag);
-        when(postTagRepository.existsByPostAndTag(post, tag)).thenReturn(true);
-        when(postTagRepository.findByPostAndTag(post, tag)).thenReturn(postTag);
+        when(postRepository.findByTitleAndUser(postToDeleteTag, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findByName(tagDto.getName())).thenReturn(Optional.of(tag));
+        when(postTagRepository.findByPostAndTag(post, tag)).thenReturn(Optional.of(postTag));
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
-        String expected = tagService.deleteTagFromPost(postToDeleteTag, tagDto, TOKEN);
+        String expected = tagService.deleteTagFromPost(postToDeleteTag, tagDto, user);
 
         // Then
         assertThat(expected).isNotNull();
+        verify(tagRepository).addToPostCount(List.of(tag.getName()), -1);
+        verify(tagNameIndex).removePost(List.of(tag.getName()));
     }
 
     @Test
@@ -334,12 +440,10 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToDeleteTag, user)).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postToDeleteTag, user)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> tagService.deleteTagFromPost(postToDeleteTag, tagDto, TOKEN))
+        assertThatThrownBy(() -> tagService.deleteTagFromPost(postToDeleteTag, tagDto, user))
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessageContaining("Post with the title '" + postToDeleteTag + "' not found!");
     }
@@ -351,13 +455,11 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToDeleteTag, user)).thenReturn(true);
-        when(tagRepository.existsByName(tagDto.getName())).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postToDeleteTag, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findByName(tagDto.getName())).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> tagService.deleteTagFromPost(postToDeleteTag, tagDto, TOKEN))
+        assertThatThrownBy(() -> tagService.deleteTagFromPost(postToDeleteTag, tagDto, user))
                 .isInstanceOf(TagNotFoundException.class)
                 .hasMessageContaining("Category '" + tagDto.getName() + "' not found!");
     }
@@ -369,16 +471,12 @@ class TagServiceTest {
         post.setPostTags(new ArrayList<>());
 
         // When
-        when(jwtService.extractUsername(any())).thenReturn(user.getEmail());
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(user);
-        when(postRepository.existsByTitleAndUser(postToDeleteTag, user)).thenReturn(true);
-        when(tagRepository.existsByName(tagDto.getName())).thenReturn(true);
-        when(postRepository.findByTitleAndUser(postToDeleteTag, user)).thenReturn(post);
-        when(tagRepository.findTagByName(tagDto.getName())).thenReturn(tag);
-        when(postTagRepository.existsByPostAndTag(post, tag)).thenReturn(false);
+        when(postRepository.findByTitleAndUser(postToDeleteTag, user)).thenReturn(Optional.of(post));
+        when(tagRepository.findByName(tagDto.getName())).thenReturn(Optional.of(tag));
+        when(postTagRepository.findByPostAndTag(post, tag)).thenReturn(Optional.empty());
 
         // Then
-        assertThatThrownBy(() -> tagService.deleteTagFromPost(postToDeleteTag, tagDto, TOKEN))
+        assertThatThrownBy(() -> tagService.deleteTagFromPost(postToDeleteTag, tagDto, user))
                 .isInstanceOf(PostDoesNotContainThatTagException.class)
                 .hasMessageContaining(
                         "Post '" + postToDeleteTag + "' does not contain tag '" + tagDto.getName() + "'"
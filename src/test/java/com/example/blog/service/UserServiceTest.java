@@ -5,21 +5,28 @@ import com.example.blog.dto.UserLoginRequest;
 import com.example.blog.dto.UserRegisterRequest;
 import com.example.blog.entity.Role;
 import com.example.blog.entity.User;
-import com.example.blog.exception.InvalidRepeatedPasswordException;
 import com.example.blog.exception.UserAlreadyExistsException;
-import com.example.blog.exception.UserNotFoundException;
+import com.example.blog.exception.ServiceBusyException;
+import com.example.blog.exception.TooManyLoginAttemptsException;
 import com.example.blog.repository.UserRepository;
 import com.example.blog.security.JwtService;
+import com.example.blog.security.LoginRateLimiter;
+import com.example.blog.security.PasswordHasher;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,7 +38,7 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private AuthenticationManager authenticationManager;
@@ -39,7 +46,15 @@ class UserServiceTest {
     @Mock
     private JwtService jwtService;
 
-    @InjectMocks
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    //Real executors, so we can check on which thread each part of the registration runs
+    private final ExecutorService applicationTaskExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "application-task"));
+    private final ExecutorService hasherExecutor =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "password-hasher-1"));
+
     private UserService userService;
 
     private User user;
@@ -48,12 +63,15 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        userService = new UserService(
+                userRepository, passwordHasher, jwtService, authenticationManager, loginRateLimiter, applicationTaskExecutor
+        );
+
         user = User.builder()
                 .firstName("John")
                 .lastName("Evans")
                 .email("john_evans@gmail.com")
-                .password(passwordEncoder.encode("Test.123"))
-                .repeatPassword(passwordEncoder.encode("Test.123"))
+                .password("encoded")
                 .role(Role.USER)
                 .build();
 
@@ -71,6 +89,12 @@ class UserServiceTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        applicationTaskExecutor.shutdownNow();
+        hasherExecutor.shutdownNow();
+    }
+
     @Test
     void testRegisterShouldReturnAuthenticationResponse() {
         // Given
@@ -78,16 +102,38 @@ class UserServiceTest {
 
         // When
         when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
+        when(passwordHasher.hash(registerRequest.getPassword())).thenReturn(CompletableFuture.completedFuture("encoded"));
         when(userRepository.save(user)).thenReturn(user);
         when(jwtService.generateToken(user)).thenReturn(token);
 
-        AuthenticationResponse response = userService.register(registerRequest);
+        AuthenticationResponse response = userService.register(registerRequest).join();
 
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getToken()).isEqualTo(token);
     }
 
+    @Test
+    void testRegisterShouldSaveUserOnApplicationTaskExecutorAndNotOnHasherThread() {
+        // Given
+        AtomicReference<String> saveThread = new AtomicReference<>();
+
+        // When
+        when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
+        when(passwordHasher.hash(registerRequest.getPassword()))
+                .thenReturn(CompletableFuture.supplyAsync(() -> "encoded", hasherExecutor));
+        when(userRepository.save(user)).thenAnswer(invocation -> {
+            saveThread.set(Thread.currentThread().getName());
+            return user;
+        });
+        when(jwtService.generateToken(user)).thenReturn("token");
+
+        userService.register(registerRequest).join();
+
+        // Then
+        assertThat(saveThread.get()).isEqualTo("application-task");
+    }
+
     @Test
     void testRegisterShouldThrowUserAlreadyExistsException() {
         // When
@@ -100,18 +146,16 @@ class UserServiceTest {
     }
 
     @Test
-    void testRegisterShouldThrowInvalidRepeatedPasswordException() {
-        // given
-        String missMatchPassword = "Pass.123";
-        registerRequest.setRepeatPassword(missMatchPassword);
-
-        // when
+    void testRegisterWhenPasswordHasherIsBusyShouldThrowServiceBusyException() {
+        // When
         when(userRepository.existsByEmail(registerRequest.getEmail())).thenReturn(false);
+        when(passwordHasher.hash(registerRequest.getPassword()))
+                .thenThrow(new ServiceBusyException("Server is busy, please try again later!"));
 
-        // then
+        // Then
         assertThatThrownBy(() -> userService.register(registerRequest))
-                .isInstanceOf(InvalidRepeatedPasswordException.class)
-                .hasMessageContaining("Passwords do not match, please try again!");
+                .isInstanceOf(ServiceBusyException.class);
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -121,32 +165,45 @@ class UserServiceTest {
         Authentication authentication = mock(Authentication.class);
 
         // When
-        when(userRepository.existsByEmail(loginRequest.getEmail())).thenReturn(true);
         when(authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()))
         ).thenReturn(authentication);
-        when(userRepository.findUserByEmail(registerRequest.getEmail())).thenReturn(user);
+        when(authentication.getPrincipal()).thenReturn(user);
         when(jwtService.generateToken(user)).thenReturn(token);
 
-        AuthenticationResponse response = userService.login(loginRequest);
+        AuthenticationResponse response = userService.login(loginRequest, "127.0.0.1");
 
         // Then
         assertThat(response).isNotNull();
         assertThat(response.getToken()).isEqualTo(token);
 
-        verify(authenticationManager).authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-        );
+        verify(loginRateLimiter).checkAttempt(loginRequest.getEmail(), "127.0.0.1");
+        verify(loginRateLimiter).loginSucceeded(loginRequest.getEmail());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testLoginShouldThrowBadCredentialsException() {
+        // When
+        when(authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()))
+        ).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // Then
+        assertThatThrownBy(() -> userService.login(loginRequest, "127.0.0.1"))
+                .isInstanceOf(BadCredentialsException.class);
+        verify(loginRateLimiter, never()).loginSucceeded(loginRequest.getEmail());
     }
 
     @Test
-    void testLoginShouldThrowUserNotFoundException() {
+    void testLoginOverLimitShouldThrowTooManyLoginAttemptsException() {
         // When
-        when(userRepository.existsByEmail(loginRequest.getEmail())).thenReturn(false);
+        doThrow(new TooManyLoginAttemptsException("Too many login attempts, please try again later!"))
+                .when(loginRateLimiter).checkAttempt(loginRequest.getEmail(), "127.0.0.1");
 
         // Then
-        assertThatThrownBy(() -> userService.login(loginRequest))
-                .isInstanceOf(UserNotFoundException.class)
-                .hasMessageContaining("User with provided email does not exist!");
+        assertThatThrownBy(() -> userService.login(loginRequest, "127.0.0.1"))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        verifyNoInteractions(authenticationManager);
     }
-}
\ No newline at end of file
+}
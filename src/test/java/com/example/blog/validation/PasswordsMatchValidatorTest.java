@@ -0,0 +1,64 @@
+package com.example.blog.validation;
+
+import com.example.blog.dto.UserRegisterRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordsMatchValidatorTest {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private UserRegisterRequest request;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        request = UserRegisterRequest.builder()
+                .firstName("John")
+                .lastName("Evans")
+                .email("john_evans@gmail.com")
+                .password("Test.123")
+                .repeatPassword("Test.123")
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testSamePasswordsShouldBeValid() {
+        // When
+        Set<ConstraintViolation<UserRegisterRequest>> expected = validator.validate(request);
+
+        // Then
+        assertThat(expected).isEmpty();
+    }
+
+    @Test
+    void testDifferentPasswordsShouldBeReportedOnRepeatPassword() {
+        // Given
+        request.setRepeatPassword("Pass.123");
+
+        // When
+        Set<ConstraintViolation<UserRegisterRequest>> expected = validator.validate(request);
+
+        // Then
+        assertThat(expected).hasSize(1);
+        ConstraintViolation<UserRegisterRequest> violation = expected.iterator().next();
+        assertThat(violation.getPropertyPath().toString()).isEqualTo("repeatPassword");
+        assertThat(violation.getMessage()).isEqualTo("Passwords do not match, please try again!");
+    }
+}